@@ -0,0 +1,99 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Like;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+public class DataGenerator {
+    private static final int CHUNK_SIZE = 10000;
+    private static final int GENRES = 6;
+    private static final int MPA_RATINGS = 5;
+
+    private final Random random;
+    private final int size;
+
+    public DataGenerator(long seed, int size) {
+        this.random = new Random(seed);
+        this.size = size;
+    }
+
+    public void populate(FilmStorage filmStorage, UserStorage userStorage) {
+        for (int from = 0; from < size; from += CHUNK_SIZE) {
+            int to = Math.min(from + CHUNK_SIZE, size);
+            filmStorage.createAll(films(from, to));
+            userStorage.createAll(users(from, to));
+        }
+        List<Like> likes = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            likes.add(Like.builder()
+                    .filmId(popularId())
+                    .userId(randomId())
+                    .build());
+            if (likes.size() == CHUNK_SIZE) {
+                filmStorage.addLikes(likes);
+                likes = new ArrayList<>();
+            }
+        }
+        if (!likes.isEmpty()) {
+            filmStorage.addLikes(likes);
+        }
+        for (int i = 0; i < size; i++) {
+            long userId = randomId();
+            long friendId = popularId();
+            if (userId != friendId) {
+                userStorage.addFriend(userId, friendId);
+            }
+        }
+    }
+
+    public long randomId() {
+        return random.nextInt(size) + 1;
+    }
+
+    public long popularId() {
+        return (long) (size * Math.pow(random.nextDouble(), 3)) + 1;
+    }
+
+    public List<Film> films(int from, int to) {
+        List<Film> films = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            Set<Genre> genres = new LinkedHashSet<>();
+            for (int j = random.nextInt(3); j > 0; j--) {
+                genres.add(Genre.builder().id(random.nextInt(GENRES) + 1).build());
+            }
+            films.add(Film.builder()
+                    .name("film" + i)
+                    .description("Synthetic film " + i)
+                    .releaseDate(LocalDate.of(1950 + random.nextInt(70), 1 + random.nextInt(12), 1 + random.nextInt(28)))
+                    .duration(60 + random.nextInt(120))
+                    .mpa(Mpa.builder().id(random.nextInt(MPA_RATINGS) + 1).build())
+                    .genres(genres)
+                    .build());
+        }
+        return films;
+    }
+
+    public List<User> users(int from, int to) {
+        List<User> users = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            users.add(User.builder()
+                    .email("user" + i + "@example.com")
+                    .login("user" + i)
+                    .name("User " + i)
+                    .birthday(LocalDate.of(1950 + random.nextInt(55), 1 + random.nextInt(12), 1 + random.nextInt(28)))
+                    .build());
+        }
+        return users;
+    }
+}
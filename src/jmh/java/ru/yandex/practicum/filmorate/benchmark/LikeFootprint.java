@@ -0,0 +1,20 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jol.info.GraphLayout;
+
+public class LikeFootprint {
+    public static void main(String[] args) {
+        int likes = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+        LikeIndexBenchmark.Likes boxed = new LikeIndexBenchmark.BoxedLikes();
+        LikeIndexBenchmark.Likes primitive = new LikeIndexBenchmark.PrimitiveLikes();
+        LikeIndexBenchmark.populate(boxed, likes, 42);
+        LikeIndexBenchmark.populate(primitive, likes, 42);
+        print("boxed", boxed, likes);
+        print("primitive", primitive, likes);
+    }
+
+    private static void print(String name, Object likes, int count) {
+        long bytes = GraphLayout.parseInstance(likes).totalSize();
+        System.out.printf("%-10s %,15d bytes %8.1f bytes/like%n", name, bytes, bytes / (double) count);
+    }
+}
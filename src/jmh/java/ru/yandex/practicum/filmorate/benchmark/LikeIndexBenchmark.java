@@ -0,0 +1,152 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.storage.film.LikeIndex;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class LikeIndexBenchmark {
+    static final int FILMS = 10000;
+    static final int USERS = 100000;
+    private static final long SEED = 42;
+
+    @Param({"boxed", "primitive"})
+    private String index;
+
+    @Param({"1000000"})
+    private int likes;
+
+    private Likes target;
+    private Random random;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        target = index.equals("boxed") ? new BoxedLikes() : new PrimitiveLikes();
+        populate(target, likes, SEED);
+        random = new Random(SEED);
+    }
+
+    @Benchmark
+    public boolean addAndRemove() {
+        long filmId = popularFilm(random);
+        long userId = 1 + random.nextInt(USERS);
+        return target.add(filmId, userId) && target.remove(filmId, userId);
+    }
+
+    @Benchmark
+    public boolean contains() {
+        return target.contains(popularFilm(random), 1 + random.nextInt(USERS));
+    }
+
+    @Benchmark
+    public int count() {
+        return target.count(popularFilm(random));
+    }
+
+    static void populate(Likes target, int likes, long seed) {
+        Random random = new Random(seed);
+        for (long filmId = 1; filmId <= FILMS; filmId++) {
+            target.register(filmId);
+        }
+        for (int i = 0; i < likes; i++) {
+            target.add(popularFilm(random), 1 + random.nextInt(USERS));
+        }
+    }
+
+    private static long popularFilm(Random random) {
+        double r = random.nextDouble();
+        return (long) (FILMS * r * r * r) + 1;
+    }
+
+    interface Likes {
+        void register(long filmId);
+
+        boolean add(long filmId, long userId);
+
+        boolean remove(long filmId, long userId);
+
+        boolean contains(long filmId, long userId);
+
+        int count(long filmId);
+    }
+
+    static final class BoxedLikes implements Likes {
+        private final Map<Long, Set<Long>> likes = new HashMap<>();
+
+        @Override
+        public void register(long filmId) {
+            likes.put(filmId, new LinkedHashSet<>());
+        }
+
+        @Override
+        public boolean add(long filmId, long userId) {
+            return likes.get(filmId).add(userId);
+        }
+
+        @Override
+        public boolean remove(long filmId, long userId) {
+            return likes.get(filmId).remove(userId);
+        }
+
+        @Override
+        public boolean contains(long filmId, long userId) {
+            return likes.get(filmId).contains(userId);
+        }
+
+        @Override
+        public int count(long filmId) {
+            return likes.get(filmId).size();
+        }
+    }
+
+    static final class PrimitiveLikes implements Likes {
+        private final LikeIndex likes = new LikeIndex();
+
+        @Override
+        public void register(long filmId) {
+            likes.register(filmId);
+        }
+
+        @Override
+        public boolean add(long filmId, long userId) {
+            return likes.add(filmId, userId);
+        }
+
+        @Override
+        public boolean remove(long filmId, long userId) {
+            return likes.remove(filmId, userId);
+        }
+
+        @Override
+        public boolean contains(long filmId, long userId) {
+            return likes.contains(filmId, userId);
+        }
+
+        @Override
+        public int count(long filmId) {
+            return likes.count(filmId);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.OutputStreamAppender;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.config.SamplingTurboFilter;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.service.impl.FilmServiceImpl;
+
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoggingBenchmark {
+    private static final String PATTERN = "%d{yyyy-MM-dd HH:mm:ss.SSS} %5p --- [%t] %-40.40logger{39} : %m%n";
+
+    @Param({"INFO", "WARN"})
+    private String level;
+
+    @Param({"sync", "async"})
+    private String appender;
+
+    @Param({"1", "100"})
+    private int sampleRate;
+
+    private LoggerContext context;
+    private Logger log;
+    private Film film;
+    private long filmId;
+    private long userId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new LoggerContext();
+        SamplingTurboFilter filter = new SamplingTurboFilter();
+        filter.setContext(context);
+        filter.setCategory(FilmServiceImpl.class.getName());
+        filter.setRate(sampleRate);
+        filter.start();
+        context.addTurboFilter(filter);
+
+        log = context.getLogger(FilmServiceImpl.class);
+        log.setLevel(ch.qos.logback.classic.Level.toLevel(level));
+        log.setAdditive(false);
+        log.addAppender(appender.equals("async") ? async(output()) : output());
+
+        film = new DataGenerator(42, 1).films(0, 1).get(0);
+        film.setId(1L);
+        filmId = film.getId();
+        userId = 2;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.stop();
+    }
+
+    @Benchmark
+    public void createConcatenated() {
+        log.info("Film validation started: " + film);
+        log.info("Film validation successful: " + film);
+        log.info("Film created: " + film);
+    }
+
+    @Benchmark
+    public void createParameterized() {
+        log.debug("Film validation started: {}", film);
+        log.debug("Film validation successful: {}", film);
+        log.info("Film created: {}", film);
+    }
+
+    @Benchmark
+    public void likeConcatenated() {
+        log.info("Adding like for filmId=" + filmId + " and userId=" + userId);
+    }
+
+    @Benchmark
+    public void likeParameterized() {
+        log.info("Adding like for filmId={} and userId={}", filmId, userId);
+    }
+
+    private Appender<ILoggingEvent> output() {
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern(PATTERN);
+        encoder.start();
+        OutputStreamAppender<ILoggingEvent> output = new OutputStreamAppender<>();
+        output.setContext(context);
+        output.setEncoder(encoder);
+        output.setOutputStream(OutputStream.nullOutputStream());
+        output.start();
+        return output;
+    }
+
+    private Appender<ILoggingEvent> async(Appender<ILoggingEvent> output) {
+        AsyncAppender async = new AsyncAppender();
+        async.setContext(context);
+        async.setQueueSize(8192);
+        async.addAppender(output);
+        async.start();
+        return async;
+    }
+}
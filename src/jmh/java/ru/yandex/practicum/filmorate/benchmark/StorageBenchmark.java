@@ -0,0 +1,125 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.service.impl.FilmServiceImpl;
+import ru.yandex.practicum.filmorate.service.impl.UserServiceImpl;
+import ru.yandex.practicum.filmorate.storage.film.FilmDbStorage;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.film.ReferenceDataRegistry;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserDbStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class StorageBenchmark {
+    private static final long SEED = 42;
+
+    @Param({"memory", "h2"})
+    private String storage;
+
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+
+    private EmbeddedDatabase database;
+    private FilmStorage filmStorage;
+    private UserStorage userStorage;
+    private FilmService filmService;
+    private UserService userService;
+    private DataGenerator generator;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        if (storage.equals("h2")) {
+            database = new EmbeddedDatabaseBuilder()
+                    .generateUniqueName(true)
+                    .setType(EmbeddedDatabaseType.H2)
+                    .addScript("schema.sql")
+                    .addScript("data.sql")
+                    .build();
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(database);
+            ReferenceDataRegistry referenceData = new ReferenceDataRegistry(jdbcTemplate);
+            referenceData.refresh();
+            filmStorage = new FilmDbStorage(jdbcTemplate, referenceData);
+            userStorage = new UserDbStorage(jdbcTemplate);
+        } else {
+            filmStorage = new InMemoryFilmStorage();
+            userStorage = new InMemoryUserStorage();
+        }
+        new DataGenerator(SEED, size).populate(filmStorage, userStorage);
+        userService = new UserServiceImpl(userStorage, Optional.empty());
+        filmService = new FilmServiceImpl(filmStorage, userService, Optional.empty(), Optional.empty(), Optional.empty());
+        generator = new DataGenerator(SEED + 1, size);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (database != null) {
+            database.shutdown();
+        }
+    }
+
+    @Benchmark
+    public Collection<Film> getAll() {
+        return filmStorage.getAll();
+    }
+
+    @Benchmark
+    public Film getFilm() {
+        return filmStorage.getFilm(generator.randomId());
+    }
+
+    @Benchmark
+    public List<Film> getTopFilms() {
+        return filmStorage.getTopFilms(10);
+    }
+
+    @Benchmark
+    public Collection<User> getCommonFriends() {
+        return userService.getCommonFriends(generator.randomId(), generator.popularId());
+    }
+
+    @Benchmark
+    public void addLike() {
+        filmService.addLike(generator.randomId(), generator.randomId());
+    }
+
+    @Benchmark
+    public void addFriend() {
+        long userId = generator.randomId();
+        long friendId = generator.randomId();
+        if (userId != friendId) {
+            userService.addFriend(userId, friendId);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package ru.yandex.practicum.filmorate.loadtest;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+public class FilmorateClient {
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(TIMEOUT)
+            .build();
+    private final String baseUrl;
+    private final LatencyRecorder recorder;
+
+    public FilmorateClient(int port, LatencyRecorder recorder) {
+        this.baseUrl = "http://localhost:" + port;
+        this.recorder = recorder;
+    }
+
+    public String get(String route, String path) {
+        return send(route, request(path).GET());
+    }
+
+    public String put(String route, String path) {
+        return send(route, request(path).PUT(HttpRequest.BodyPublishers.noBody()));
+    }
+
+    public String delete(String route, String path) {
+        return send(route, request(path).DELETE());
+    }
+
+    public String post(String route, String path, String body) {
+        return send(route, request(path)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body)));
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(TIMEOUT);
+    }
+
+    private String send(String route, HttpRequest.Builder request) {
+        long start = System.nanoTime();
+        boolean error = true;
+        try {
+            HttpResponse<String> response = client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+            error = response.statusCode() >= 500;
+            return response.body();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } finally {
+            recorder.record(route, System.nanoTime() - start, error);
+        }
+    }
+}
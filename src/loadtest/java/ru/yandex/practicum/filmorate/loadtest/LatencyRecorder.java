@@ -0,0 +1,79 @@
+package ru.yandex.practicum.filmorate.loadtest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+public class LatencyRecorder {
+    private final Map<String, RouteSamples> routes = new ConcurrentHashMap<>();
+    private volatile boolean recording;
+
+    public void start() {
+        routes.clear();
+        recording = true;
+    }
+
+    public void stop() {
+        recording = false;
+    }
+
+    public void record(String route, long nanos, boolean error) {
+        if (recording) {
+            routes.computeIfAbsent(route, key -> new RouteSamples()).add(nanos, error);
+        }
+    }
+
+    public List<RouteReport> report(double seconds) {
+        List<RouteReport> reports = new ArrayList<>();
+        routes.forEach((route, samples) -> reports.add(samples.report(route, seconds)));
+        reports.sort(Comparator.comparing(RouteReport::getRoute));
+        return reports;
+    }
+
+    private static final class RouteSamples {
+        private long[] latencies = new long[1024];
+        private int count;
+        private long errors;
+
+        private synchronized void add(long nanos, boolean error) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+            if (error) {
+                errors++;
+            }
+        }
+
+        private synchronized RouteReport report(String route, double seconds) {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            return RouteReport.builder()
+                    .route(route)
+                    .count(count)
+                    .errors(errors)
+                    .throughput(count / seconds)
+                    .p50Ms(percentile(sorted, 0.5))
+                    .p95Ms(percentile(sorted, 0.95))
+                    .p99Ms(percentile(sorted, 0.99))
+                    .maxMs(count == 0 ? 0 : toMillis(sorted[count - 1]))
+                    .build();
+        }
+
+        private static double percentile(long[] sorted, double quantile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(quantile * sorted.length) - 1;
+            return toMillis(sorted[Math.max(index, 0)]);
+        }
+
+        private static double toMillis(long nanos) {
+            return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package ru.yandex.practicum.filmorate.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.yandex.practicum.filmorate.FilmorateApplication;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.io.File;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class LoadTest {
+    private static final int SEED_CHUNK_SIZE = 1000;
+    private static final int HOT_FILMS = 10;
+    private static final int POPULAR_COUNT = 10;
+
+    private final WorkloadProfile profile;
+    private final int threads;
+    private final long warmupSeconds;
+    private final long durationSeconds;
+    private final int userCount;
+    private final int filmCount;
+    private final int likeCount;
+    private final int friendshipCount;
+    private final String result;
+    private final LatencyRecorder recorder = new LatencyRecorder();
+    private final AtomicLong failures = new AtomicLong();
+    private ObjectMapper objectMapper;
+    private FilmorateClient client;
+    private long[] userIds;
+    private long[] filmIds;
+
+    private LoadTest(Map<String, String> options) {
+        this.profile = WorkloadProfile.of(options.getOrDefault("profile", "read-heavy"));
+        this.threads = Integer.parseInt(options.getOrDefault("threads", "32"));
+        this.warmupSeconds = Long.parseLong(options.getOrDefault("warmup", "10"));
+        this.durationSeconds = Long.parseLong(options.getOrDefault("duration", "30"));
+        this.userCount = Integer.parseInt(options.getOrDefault("users", "10000"));
+        this.filmCount = Integer.parseInt(options.getOrDefault("films", "10000"));
+        this.likeCount = Integer.parseInt(options.getOrDefault("likes", "100000"));
+        this.friendshipCount = Integer.parseInt(options.getOrDefault("friendships", "50000"));
+        this.result = options.getOrDefault("result", "target/loadtest-" + profile.getName() + ".json");
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        List<String> springArgs = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1",
+                "--logging.level.root=WARN",
+                "--logging.level.ru.yandex.practicum.filmorate=WARN"));
+        for (String arg : args) {
+            String option = arg.startsWith("--") ? arg.substring(2) : arg;
+            int separator = option.indexOf('=');
+            String key = separator < 0 ? option : option.substring(0, separator);
+            if (isOption(key)) {
+                options.put(key, separator < 0 ? "true" : option.substring(separator + 1));
+            } else {
+                springArgs.add(arg);
+            }
+        }
+        LoadTest loadTest = new LoadTest(options);
+        try (ConfigurableApplicationContext context = SpringApplication.run(FilmorateApplication.class,
+                springArgs.toArray(new String[0]))) {
+            int port = Integer.parseInt(context.getEnvironment().getRequiredProperty("local.server.port"));
+            loadTest.run(context.getBean(ObjectMapper.class), port);
+        }
+    }
+
+    private static boolean isOption(String key) {
+        return List.of("profile", "threads", "warmup", "duration", "users", "films", "likes", "friendships", "result")
+                .contains(key);
+    }
+
+    private void run(ObjectMapper objectMapper, int port) throws Exception {
+        this.objectMapper = objectMapper;
+        this.client = new FilmorateClient(port, recorder);
+        seed();
+
+        System.out.println("Warming up " + profile.getName() + " for " + warmupSeconds + " s on " + threads + " threads");
+        drive(warmupSeconds);
+        recorder.start();
+        System.out.println("Measuring " + profile.getName() + " for " + durationSeconds + " s");
+        long start = System.nanoTime();
+        drive(durationSeconds);
+        double elapsed = (System.nanoTime() - start) / (double) TimeUnit.SECONDS.toNanos(1);
+        recorder.stop();
+
+        List<RouteReport> routes = recorder.report(elapsed);
+        long requests = routes.stream().mapToLong(RouteReport::getCount).sum();
+        LoadTestReport report = LoadTestReport.builder()
+                .profile(profile.getName())
+                .threads(threads)
+                .durationSeconds(durationSeconds)
+                .requests(requests)
+                .errors(routes.stream().mapToLong(RouteReport::getErrors).sum() + failures.get())
+                .throughput(requests / elapsed)
+                .routes(routes)
+                .build();
+        print(report);
+        File file = new File(result);
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
+        }
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(file, report);
+        System.out.println("Report written to " + file.getAbsolutePath());
+    }
+
+    private void seed() throws Exception {
+        long start = System.nanoTime();
+        Random random = new Random(42);
+        userIds = new long[userCount];
+        for (int from = 0; from < userCount; from += SEED_CHUNK_SIZE) {
+            List<User> users = new ArrayList<>();
+            for (int i = from; i < Math.min(from + SEED_CHUNK_SIZE, userCount); i++) {
+                users.add(User.builder()
+                        .email("user" + i + "@loadtest.ru")
+                        .login("user" + i)
+                        .name("User " + i)
+                        .birthday(LocalDate.of(1970, 1, 1).plusDays(random.nextInt(15000)))
+                        .build());
+            }
+            JsonNode imported = objectMapper.readTree(
+                    client.post("seed", "/users/batch", objectMapper.writeValueAsString(users)));
+            for (JsonNode importResult : imported) {
+                if (!importResult.hasNonNull("id")) {
+                    throw new IllegalStateException("User import failed: " + importResult.path("error").asText());
+                }
+                userIds[from + importResult.get("index").asInt()] = importResult.get("id").asLong();
+            }
+        }
+        filmIds = new long[filmCount];
+        for (int from = 0; from < filmCount; from += SEED_CHUNK_SIZE) {
+            List<Film> films = new ArrayList<>();
+            for (int i = from; i < Math.min(from + SEED_CHUNK_SIZE, filmCount); i++) {
+                films.add(Film.builder()
+                        .name("Film " + i)
+                        .description("Load test film " + i)
+                        .releaseDate(LocalDate.of(1950, 1, 1).plusDays(random.nextInt(25000)))
+                        .duration(60 + random.nextInt(120))
+                        .mpa(Mpa.builder().id(1 + random.nextInt(5)).build())
+                        .build());
+            }
+            long[] ids = objectMapper.readValue(
+                    client.post("seed", "/films/batch", objectMapper.writeValueAsString(films)), long[].class);
+            System.arraycopy(ids, 0, filmIds, from, ids.length);
+        }
+        parallel(likeCount, (index, rnd) -> client.put("seed", "/films/" + popularFilm(rnd) + "/like/" + randomUser(rnd)));
+        parallel(friendshipCount, (index, rnd) -> client.put("seed", "/users/" + randomUser(rnd) + "/friends/"
+                + randomUser(rnd)));
+        System.out.println("Seeded " + userCount + " users, " + filmCount + " films, " + likeCount + " likes, "
+                + friendshipCount + " friendships in " + TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start) + " s");
+    }
+
+    private void drive(long seconds) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                workers.add(executor.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (System.nanoTime() < deadline) {
+                        try {
+                            execute(profile.next(random), random);
+                        } catch (RuntimeException e) {
+                            failures.incrementAndGet();
+                        }
+                    }
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void execute(Operation operation, Random random) {
+        String route = operation.getRoute();
+        switch (operation) {
+            case POPULAR:
+                client.get(route, "/films/popular?count=" + POPULAR_COUNT);
+                break;
+            case FILM:
+                client.get(route, "/films/" + popularFilm(random));
+                break;
+            case LIKE:
+                client.put(route, "/films/" + popularFilm(random) + "/like/" + randomUser(random));
+                break;
+            case HOT_LIKE:
+                client.put(route, "/films/" + filmIds[random.nextInt(Math.min(HOT_FILMS, filmCount))] + "/like/"
+                        + randomUser(random));
+                break;
+            case UNLIKE:
+                client.delete(route, "/films/" + popularFilm(random) + "/like/" + randomUser(random));
+                break;
+            case FRIENDS:
+                client.get(route, "/users/" + randomUser(random) + "/friends");
+                break;
+            case ADD_FRIEND:
+                client.put(route, "/users/" + randomUser(random) + "/friends/" + randomUser(random));
+                break;
+            case DELETE_FRIEND:
+                client.delete(route, "/users/" + randomUser(random) + "/friends/" + randomUser(random));
+                break;
+            case COMMON_FRIENDS:
+                client.get(route, "/users/" + randomUser(random) + "/friends/common/" + randomUser(random));
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown operation " + operation);
+        }
+    }
+
+    private long popularFilm(Random random) {
+        double r = random.nextDouble();
+        return filmIds[(int) (filmCount * r * r * r)];
+    }
+
+    private long randomUser(Random random) {
+        return userIds[random.nextInt(userCount)];
+    }
+
+    private void parallel(int count, SeedAction action) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            int perThread = (count + threads - 1) / threads;
+            for (int t = 0; t < threads; t++) {
+                int from = t * perThread;
+                int to = Math.min(count, from + perThread);
+                long seed = 42 + t;
+                futures.add(executor.submit(() -> {
+                    Random random = new Random(seed);
+                    for (int i = from; i < to; i++) {
+                        action.run(i, random);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void print(LoadTestReport report) {
+        System.out.println();
+        System.out.printf("%-42s %9s %7s %9s %9s %9s %9s %9s%n",
+                "route", "count", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms");
+        for (RouteReport route : report.getRoutes()) {
+            System.out.printf("%-42s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n", route.getRoute(), route.getCount(),
+                    route.getErrors(), route.getThroughput(), route.getP50Ms(), route.getP95Ms(), route.getP99Ms(),
+                    route.getMaxMs());
+        }
+        System.out.printf("%-42s %9d %7d %9.1f%n", "total", report.getRequests(), report.getErrors(),
+                report.getThroughput());
+    }
+
+    private interface SeedAction {
+        void run(int index, Random random);
+    }
+}
@@ -0,0 +1,24 @@
+package ru.yandex.practicum.filmorate.loadtest;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class LoadTestReport {
+    private String profile;
+
+    private int threads;
+
+    private long durationSeconds;
+
+    private long requests;
+
+    private long errors;
+
+    private double throughput;
+
+    private List<RouteReport> routes;
+}
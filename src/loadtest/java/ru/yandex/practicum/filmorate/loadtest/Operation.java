@@ -0,0 +1,23 @@
+package ru.yandex.practicum.filmorate.loadtest;
+
+public enum Operation {
+    POPULAR("GET /films/popular"),
+    FILM("GET /films/{id}"),
+    LIKE("PUT /films/{id}/like/{userId}"),
+    HOT_LIKE("PUT /films/{id}/like/{userId}"),
+    UNLIKE("DELETE /films/{id}/like/{userId}"),
+    FRIENDS("GET /users/{id}/friends"),
+    ADD_FRIEND("PUT /users/{id}/friends/{friendId}"),
+    DELETE_FRIEND("DELETE /users/{id}/friends/{friendId}"),
+    COMMON_FRIENDS("GET /users/{id}/friends/common/{otherId}");
+
+    private final String route;
+
+    Operation(String route) {
+        this.route = route;
+    }
+
+    public String getRoute() {
+        return route;
+    }
+}
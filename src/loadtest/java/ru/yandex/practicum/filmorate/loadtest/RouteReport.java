@@ -0,0 +1,24 @@
+package ru.yandex.practicum.filmorate.loadtest;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class RouteReport {
+    private String route;
+
+    private long count;
+
+    private long errors;
+
+    private double throughput;
+
+    private double p50Ms;
+
+    private double p95Ms;
+
+    private double p99Ms;
+
+    private double maxMs;
+}
@@ -0,0 +1,65 @@
+package ru.yandex.practicum.filmorate.loadtest;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static ru.yandex.practicum.filmorate.loadtest.Operation.ADD_FRIEND;
+import static ru.yandex.practicum.filmorate.loadtest.Operation.COMMON_FRIENDS;
+import static ru.yandex.practicum.filmorate.loadtest.Operation.DELETE_FRIEND;
+import static ru.yandex.practicum.filmorate.loadtest.Operation.FILM;
+import static ru.yandex.practicum.filmorate.loadtest.Operation.FRIENDS;
+import static ru.yandex.practicum.filmorate.loadtest.Operation.HOT_LIKE;
+import static ru.yandex.practicum.filmorate.loadtest.Operation.LIKE;
+import static ru.yandex.practicum.filmorate.loadtest.Operation.POPULAR;
+import static ru.yandex.practicum.filmorate.loadtest.Operation.UNLIKE;
+
+public enum WorkloadProfile {
+    READ_HEAVY("read-heavy", weights(
+            POPULAR, 40, FILM, 40, LIKE, 8, UNLIKE, 2, ADD_FRIEND, 3, DELETE_FRIEND, 2, COMMON_FRIENDS, 5)),
+    PREMIERE("premiere", weights(
+            HOT_LIKE, 55, UNLIKE, 10, POPULAR, 30, FILM, 5)),
+    SOCIAL("social", weights(
+            ADD_FRIEND, 30, DELETE_FRIEND, 20, COMMON_FRIENDS, 30, FRIENDS, 20));
+
+    private final String name;
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+
+    WorkloadProfile(String name, Map<Operation, Integer> weights) {
+        this.name = name;
+        this.operations = weights.keySet().toArray(new Operation[0]);
+        this.cumulativeWeights = new int[operations.length];
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += weights.get(operations[i]);
+            cumulativeWeights[i] = total;
+        }
+    }
+
+    public static WorkloadProfile of(String name) {
+        return Arrays.stream(values())
+                .filter(profile -> profile.name.equals(name))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown profile " + name));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Operation next(Random random) {
+        int value = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        int index = Arrays.binarySearch(cumulativeWeights, value + 1);
+        return operations[index >= 0 ? index : -index - 1];
+    }
+
+    private static Map<Operation, Integer> weights(Object... pairs) {
+        Map<Operation, Integer> weights = new LinkedHashMap<>();
+        for (int i = 0; i < pairs.length; i += 2) {
+            weights.put((Operation) pairs[i], (Integer) pairs[i + 1]);
+        }
+        return weights;
+    }
+}
@@ -0,0 +1,50 @@
+package ru.yandex.practicum.filmorate.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+public class SamplingTurboFilter extends TurboFilter {
+    private final AtomicLong events = new AtomicLong();
+    private String category = "";
+    private Level level = Level.INFO;
+    private int rate = 1;
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public void setLevel(String level) {
+        this.level = Level.toLevel(level, Level.INFO);
+    }
+
+    public void setRate(int rate) {
+        this.rate = rate;
+    }
+
+    public long getEvents() {
+        return events.get();
+    }
+
+    @Override
+    public void start() {
+        if (rate < 1) {
+            addError("Sampling rate must be positive for category '" + category + "'");
+            return;
+        }
+        super.start();
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (rate <= 1 || format == null || level.isGreaterOrEqual(Level.WARN) || !this.level.isGreaterOrEqual(level)
+                || !logger.getName().startsWith(category)) {
+            return FilterReply.NEUTRAL;
+        }
+        return events.getAndIncrement() % rate == 0 ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+}
@@ -0,0 +1,50 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+public class ETags {
+    private static final String WEAK_PREFIX = "W/";
+
+    public static String of(Object... parts) {
+        StringBuilder eTag = new StringBuilder("\"");
+        for (int i = 0; i < parts.length; i++) {
+            if (i > 0) {
+                eTag.append('-');
+            }
+            eTag.append(parts[i]);
+        }
+        return eTag.append('"').toString();
+    }
+
+    public static <T> ResponseEntity<T> toResponse(WebRequest request, String eTag, Supplier<T> body) {
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        return ResponseEntity.ok().eTag(eTag).body(body.get());
+    }
+
+    public static ResponseEntity<Resource> toJsonResponse(WebRequest request, String eTag, Resource json) {
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        return ResponseEntity.ok().eTag(eTag).contentType(MediaType.APPLICATION_JSON).body(json);
+    }
+
+    private static boolean matches(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        return Arrays.stream(ifNoneMatch.split(","))
+                .map(String::trim)
+                .map(candidate -> candidate.startsWith(WEAK_PREFIX) ? candidate.substring(WEAK_PREFIX.length()) : candidate)
+                .anyMatch(candidate -> candidate.equals("*") || candidate.equals(eTag));
+    }
+}
@@ -1,5 +1,6 @@
 package ru.yandex.practicum.filmorate.controller;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
@@ -13,39 +14,57 @@ import ru.yandex.practicum.filmorate.model.ErrorResponse;
 
 @RestControllerAdvice
 public class ErrorHandler {
+    private final MeterRegistry meterRegistry;
+
+    public ErrorHandler(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
     @ExceptionHandler
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ErrorResponse handleValidationException(final ValidationException e) {
+        count(e, HttpStatus.BAD_REQUEST);
         return new ErrorResponse(String.format("Validation error: %s.", e.getMessage()));
     }
 
     @ExceptionHandler
     @ResponseStatus(HttpStatus.NOT_FOUND)
     public ErrorResponse handleUserNotFoundException(final UserNotFoundException e) {
+        count(e, HttpStatus.NOT_FOUND);
         return new ErrorResponse(String.format("User not found: %s.", e.getMessage()));
     }
 
     @ExceptionHandler
     @ResponseStatus(HttpStatus.NOT_FOUND)
     public ErrorResponse handleFilmNotFoundException(final FilmNotFoundException e) {
+        count(e, HttpStatus.NOT_FOUND);
         return new ErrorResponse(String.format("Film not found: %s.", e.getMessage()));
     }
 
     @ExceptionHandler
     @ResponseStatus(HttpStatus.NOT_FOUND)
     public ErrorResponse handleGenreNotFoundException(final GenreNotFoundException e) {
+        count(e, HttpStatus.NOT_FOUND);
         return new ErrorResponse(String.format("Genre not found: %s.", e.getMessage()));
     }
 
     @ExceptionHandler
     @ResponseStatus(HttpStatus.NOT_FOUND)
     public ErrorResponse handleMpaNotFoundException(final MpaNotFoundException e) {
+        count(e, HttpStatus.NOT_FOUND);
         return new ErrorResponse(String.format("Mpa not found: %s.", e.getMessage()));
     }
 
     @ExceptionHandler
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     public ErrorResponse handleThrowable(final Throwable e) {
+        count(e, HttpStatus.INTERNAL_SERVER_ERROR);
         return new ErrorResponse(String.format("Unexpected error: %s.", e.getMessage()));
     }
+
+    private void count(Throwable e, HttpStatus status) {
+        meterRegistry.counter("filmorate.errors",
+                "type", e.getClass().getSimpleName(),
+                "status", String.valueOf(status.value())).increment();
+    }
 }
\ No newline at end of file
@@ -1,5 +1,7 @@
 package ru.yandex.practicum.filmorate.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -9,34 +11,61 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.impl.PopularFilmsSnapshot;
 
 import javax.validation.Valid;
 import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/films")
 public class FilmController {
     private final FilmService filmService;
+    private final ObjectMapper objectMapper;
+    private final Optional<PopularFilmsSnapshot> popularSnapshot;
 
-    public FilmController(FilmService filmService) {
+    public FilmController(FilmService filmService, ObjectMapper objectMapper,
+                          Optional<PopularFilmsSnapshot> popularSnapshot) {
         this.filmService = filmService;
+        this.objectMapper = objectMapper;
+        this.popularSnapshot = popularSnapshot;
     }
 
     @GetMapping
-    public Collection<Film> getAll() {
-        return filmService.getAll();
+    public ResponseEntity<Collection<Film>> getAll(@RequestParam(defaultValue = "0") long after,
+                                                   @RequestParam(defaultValue = "${filmorate.paging.default-limit:100}") int limit,
+                                                   @RequestParam(defaultValue = "false") boolean unpaged) {
+        if (unpaged) {
+            return ResponseEntity.ok(filmService.getAll());
+        }
+        Pagination.validateLimit(limit);
+        return Pagination.toResponse(filmService.getPage(after, limit), limit);
+    }
+
+    @GetMapping(params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamAll() {
+        return JsonStreaming.toResponse(objectMapper, filmService::streamAll);
     }
 
     @GetMapping("/{id}")
-    public Film getFilmById(@PathVariable("id") long filmId) {
-        return filmService.getFilmById(filmId);
+    public ResponseEntity<Film> getFilmById(@PathVariable("id") long filmId, WebRequest request) {
+        String eTag = ETags.of("film", filmId, filmService.getFilmVersion(filmId));
+        return ETags.toResponse(request, eTag, () -> filmService.getFilmById(filmId));
     }
 
     @GetMapping("/popular")
-    public Collection<Film> getTopFilms(@RequestParam(defaultValue = "10") Integer count) {
-        return filmService.getTopFilms(count);
+    public ResponseEntity<?> getTopFilms(@RequestParam(defaultValue = "10") Integer count, WebRequest request) {
+        PopularFilmsSnapshot.Snapshot snapshot = popularSnapshot.map(popular -> popular.get(count)).orElse(null);
+        if (snapshot != null) {
+            return ETags.toJsonResponse(request, ETags.of("popular", count, snapshot.getHash()), snapshot.getJson());
+        }
+        String eTag = ETags.of("popular", count, filmService.getTopFilmsVersion(count));
+        return ETags.toResponse(request, eTag, () -> filmService.getTopFilms(count));
     }
 
     @PostMapping
@@ -44,6 +73,11 @@ public class FilmController {
         return filmService.create(film);
     }
 
+    @PostMapping("/batch")
+    public long[] createAll(@RequestBody List<Film> films) {
+        return filmService.createAll(films);
+    }
+
     @PutMapping
     public Film update(@Valid @RequestBody Film film) {
         return filmService.update(film);
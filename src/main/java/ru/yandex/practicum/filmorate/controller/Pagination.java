@@ -0,0 +1,33 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.Page;
+
+import java.util.Collection;
+
+public class Pagination {
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final int MAX_LIMIT = 1000;
+
+    public static void validateLimit(int limit) throws ValidationException {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new ValidationException("'limit' must be between 1 and " + MAX_LIMIT + "!");
+        }
+    }
+
+    public static <T> ResponseEntity<Collection<T>> toResponse(Page<T> page, int limit) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            String next = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("after", page.getNextCursor())
+                    .replaceQueryParam("limit", limit)
+                    .toUriString();
+            response.header(NEXT_CURSOR_HEADER, String.valueOf(page.getNextCursor()))
+                    .header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+        }
+        return response.body(page.getItems());
+    }
+}
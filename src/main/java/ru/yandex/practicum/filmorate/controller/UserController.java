@@ -1,5 +1,7 @@
 package ru.yandex.practicum.filmorate.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -7,25 +9,43 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.yandex.practicum.filmorate.model.ImportResult;
 import ru.yandex.practicum.filmorate.model.User;
 import ru.yandex.practicum.filmorate.service.UserService;
 
 import javax.validation.Valid;
 import java.util.Collection;
+import java.util.List;
 
 @RestController
 @RequestMapping("/users")
 public class UserController {
     private final UserService userService;
+    private final ObjectMapper objectMapper;
 
-    public UserController(UserService userService) {
+    public UserController(UserService userService, ObjectMapper objectMapper) {
         this.userService = userService;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping
-    public Collection<User> getAll() {
-        return userService.getAll();
+    public ResponseEntity<Collection<User>> getAll(@RequestParam(defaultValue = "0") long after,
+                                                   @RequestParam(defaultValue = "${filmorate.paging.default-limit:100}") int limit,
+                                                   @RequestParam(defaultValue = "false") boolean unpaged) {
+        if (unpaged) {
+            return ResponseEntity.ok(userService.getAll());
+        }
+        Pagination.validateLimit(limit);
+        return Pagination.toResponse(userService.getPage(after, limit), limit);
+    }
+
+    @GetMapping(params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamAll() {
+        return JsonStreaming.toResponse(objectMapper, userService::streamAll);
     }
 
     @GetMapping("/{id}")
@@ -34,8 +54,9 @@ public class UserController {
     }
 
     @GetMapping("/{id}/friends")
-    public Collection<User> getUserFriends(@PathVariable("id") long userId) {
-        return userService.getUserFriends(userId);
+    public ResponseEntity<Collection<User>> getUserFriends(@PathVariable("id") long userId, WebRequest request) {
+        String eTag = ETags.of("friends", userId, userService.getFriendsVersion(userId));
+        return ETags.toResponse(request, eTag, () -> userService.getUserFriends(userId));
     }
 
     @PutMapping("/{id}/friends/{friendId}")
@@ -58,6 +79,11 @@ public class UserController {
         return userService.create(user);
     }
 
+    @PostMapping("/batch")
+    public List<ImportResult> createAll(@RequestBody List<User> users) {
+        return userService.createAll(users);
+    }
+
     @PutMapping
     public User update(@Valid @RequestBody User user) {
         return userService.update(user);
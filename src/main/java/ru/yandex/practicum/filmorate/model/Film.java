@@ -10,7 +10,7 @@ import java.time.LocalDate;
 import java.util.Set;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 public class Film {
     private long id;
 
@@ -0,0 +1,14 @@
+package ru.yandex.practicum.filmorate.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class ImportResult {
+    private int index;
+
+    private Long id;
+
+    private String error;
+}
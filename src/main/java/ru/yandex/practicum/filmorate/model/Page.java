@@ -0,0 +1,28 @@
+package ru.yandex.practicum.filmorate.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+@Data
+@Builder
+public class Page<T> {
+    private List<T> items;
+
+    private Long nextCursor;
+
+    public static <T> Page<T> of(List<T> items, int limit, ToLongFunction<T> cursor) {
+        if (items.size() <= limit) {
+            return Page.<T>builder()
+                    .items(items)
+                    .build();
+        }
+        List<T> pageItems = items.subList(0, limit);
+        return Page.<T>builder()
+                .items(pageItems)
+                .nextCursor(cursor.applyAsLong(pageItems.get(limit - 1)))
+                .build();
+    }
+}
@@ -3,16 +3,27 @@ package ru.yandex.practicum.filmorate.service;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.Genre;
 import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.Page;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
 
 public interface FilmService {
     Collection<Film> getAll();
 
+    Page<Film> getPage(long afterId, int limit);
+
+    void streamAll(Consumer<Film> consumer);
+
     Film getFilmById(long filmId);
 
+    long getFilmVersion(long filmId);
+
     Film create(Film film);
 
+    long[] createAll(List<Film> films);
+
     Film update(Film film);
 
     void addLike(long filmId, long userId);
@@ -21,6 +32,8 @@ public interface FilmService {
 
     Collection<Film> getTopFilms(int count);
 
+    String getTopFilmsVersion(int count);
+
     Collection<Genre> getAllGenres();
 
     Genre getGenreById(long genreId);
@@ -1,20 +1,32 @@
 package ru.yandex.practicum.filmorate.service;
 
+import ru.yandex.practicum.filmorate.model.ImportResult;
+import ru.yandex.practicum.filmorate.model.Page;
 import ru.yandex.practicum.filmorate.model.User;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
 
 public interface UserService {
     Collection<User> getAll();
 
+    Page<User> getPage(long afterId, int limit);
+
+    void streamAll(Consumer<User> consumer);
+
     User getUserById(long userId);
 
     User create(User user);
 
+    List<ImportResult> createAll(List<User> users);
+
     User update(User user);
 
     Collection<User> getUserFriends(long userId);
 
+    long getFriendsVersion(long userId);
+
     void addFriend(long userId, long friendId);
 
     void deleteFriend(long userId, long friendId);
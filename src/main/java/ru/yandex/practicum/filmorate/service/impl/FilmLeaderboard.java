@@ -0,0 +1,127 @@
+package ru.yandex.practicum.filmorate.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "filmorate.leaderboard.enabled", havingValue = "true", matchIfMissing = true)
+public class FilmLeaderboard {
+    private static final int LOCK_STRIPES = 64;
+    private static final Comparator<Entry> POPULARITY = Comparator.comparingLong(Entry::getLikes).reversed()
+            .thenComparingLong(Entry::getFilmId);
+
+    private final FilmStorage filmStorage;
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final NavigableSet<Entry> ranking = new TreeSet<>(POPULARITY);
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Lock[] filmLocks = new Lock[LOCK_STRIPES];
+
+    public FilmLeaderboard(FilmStorage filmStorage) {
+        this.filmStorage = filmStorage;
+        Arrays.setAll(filmLocks, i -> new ReentrantLock());
+    }
+
+    @PostConstruct
+    public void load() {
+        Map<Long, Set<Long>> likes = filmStorage.getLikes();
+        lock.writeLock().lock();
+        try {
+            entries.clear();
+            ranking.clear();
+            likes.forEach((filmId, userIds) -> put(new Entry(filmId, userIds.size())));
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Leaderboard loaded for {} films", likes.size());
+    }
+
+    public void register(long filmId) {
+        lock.writeLock().lock();
+        try {
+            if (!entries.containsKey(filmId)) {
+                put(new Entry(filmId, 0));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void refresh(long filmId) {
+        Lock filmLock = filmLocks[(int) (filmId & (LOCK_STRIPES - 1))];
+        filmLock.lock();
+        try {
+            Long likes = filmStorage.getLikesCount(filmId);
+            lock.writeLock().lock();
+            try {
+                Entry entry = entries.remove(filmId);
+                if (entry != null) {
+                    ranking.remove(entry);
+                }
+                if (likes != null) {
+                    put(new Entry(filmId, likes));
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            filmLock.unlock();
+        }
+    }
+
+    public List<Long> getTop(int count) {
+        lock.readLock().lock();
+        try {
+            List<Long> filmIds = new ArrayList<>(Math.min(count, ranking.size()));
+            for (Entry entry : ranking) {
+                if (filmIds.size() >= count) {
+                    break;
+                }
+                filmIds.add(entry.getFilmId());
+            }
+            return filmIds;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void put(Entry entry) {
+        entries.put(entry.getFilmId(), entry);
+        ranking.add(entry);
+    }
+
+    private static final class Entry {
+        private final long filmId;
+        private final long likes;
+
+        private Entry(long filmId, long likes) {
+            this.filmId = filmId;
+            this.likes = likes;
+        }
+
+        private long getFilmId() {
+            return filmId;
+        }
+
+        private long getLikes() {
+            return likes;
+        }
+    }
+}
@@ -1,7 +1,7 @@
 package ru.yandex.practicum.filmorate.service.impl;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 import ru.yandex.practicum.filmorate.exception.FilmNotFoundException;
 import ru.yandex.practicum.filmorate.exception.GenreNotFoundException;
@@ -10,32 +10,42 @@ import ru.yandex.practicum.filmorate.exception.ValidationException;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.Genre;
 import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.Page;
 import ru.yandex.practicum.filmorate.service.FilmService;
 import ru.yandex.practicum.filmorate.service.UserService;
 import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
 
 import java.time.LocalDate;
 import java.util.Collection;
-import java.util.Comparator;
-import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
 
 import static java.time.format.DateTimeFormatter.ISO_LOCAL_DATE;
 import static org.apache.logging.log4j.util.Strings.isBlank;
 
 @Slf4j
 @Service
+@Timed(value = "filmorate.service", percentiles = {0.5, 0.95, 0.99}, histogram = true)
 public class FilmServiceImpl implements FilmService {
     private static final LocalDate FILM_BIRTHDAY = LocalDate.of(1895, 12, 28);
+    private static final int MAX_IMPORT_SIZE = 10000;
 
     private final FilmStorage filmStorage;
     private final UserService userService;
+    private final Optional<FilmLeaderboard> leaderboard;
+    private final Optional<LikeWriteBuffer> likeBuffer;
+    private final Optional<PopularFilmsSnapshot> popularSnapshot;
 
-    public FilmServiceImpl(@Qualifier("filmDbStorage") FilmStorage filmStorage, UserService userService) {
+    public FilmServiceImpl(FilmStorage filmStorage, UserService userService,
+                           Optional<FilmLeaderboard> leaderboard, Optional<LikeWriteBuffer> likeBuffer,
+                           Optional<PopularFilmsSnapshot> popularSnapshot) {
         this.filmStorage = filmStorage;
         this.userService = userService;
+        this.leaderboard = leaderboard;
+        this.likeBuffer = likeBuffer;
+        this.popularSnapshot = popularSnapshot;
     }
 
     public static void validate(Film film) throws ValidationException {
@@ -53,49 +63,100 @@ public class FilmServiceImpl implements FilmService {
                 throw new ValidationException("'duration' must be positive!");
             }
         } catch (ValidationException e) {
-            log.error("Validation error: " + e.getMessage() + " for " + film);
+            log.error("Validation error: {} for {}", e.getMessage(), film);
             throw e;
         }
     }
 
     @Override
     public void checkFilmExisting(long filmId) {
-        Film film = filmStorage.getFilm(filmId);
-        if (film == null) {
-            log.error("Validation error: Film not found with id=" + filmId);
-            throw new FilmNotFoundException("Unknown id=" + filmId);
+        if (!filmStorage.exists(filmId)) {
+            throw filmNotFound(filmId);
         }
     }
 
+    private FilmNotFoundException filmNotFound(long filmId) {
+        log.error("Validation error: Film not found with id={}", filmId);
+        return new FilmNotFoundException("Unknown id=" + filmId);
+    }
+
     @Override
     public Collection<Film> getAll() {
         return filmStorage.getAll();
     }
 
+    @Override
+    public Page<Film> getPage(long afterId, int limit) {
+        return Page.of(filmStorage.getPage(afterId, limit + 1), limit, Film::getId);
+    }
+
+    @Override
+    public void streamAll(Consumer<Film> consumer) {
+        filmStorage.streamAll(consumer);
+    }
+
     @Override
     public Film getFilmById(long filmId) {
-        checkFilmExisting(filmId);
-        return filmStorage.getFilm(filmId);
+        return Optional.ofNullable(filmStorage.getFilm(filmId))
+                .orElseThrow(() -> filmNotFound(filmId));
+    }
+
+    @Override
+    public long getFilmVersion(long filmId) {
+        return Optional.ofNullable(filmStorage.getVersion(filmId))
+                .orElseThrow(() -> filmNotFound(filmId));
     }
 
     @Override
     public Film create(Film film) {
-        log.info("Film validation started: " + film);
+        log.debug("Film validation started: {}", film);
         validate(film);
-        log.info("Film validation successful: " + film);
+        log.debug("Film validation successful: {}", film);
         film = filmStorage.create(film);
-        log.info("Film created: " + film);
+        long filmId = film.getId();
+        leaderboard.ifPresent(board -> board.register(filmId));
+        popularSnapshot.ifPresent(PopularFilmsSnapshot::recordChange);
+        log.info("Film created: {}", film);
         return film;
     }
 
+    @Override
+    public long[] createAll(List<Film> films) {
+        if (films.size() > MAX_IMPORT_SIZE) {
+            throw new ValidationException("import is larger than " + MAX_IMPORT_SIZE + " films!");
+        }
+        log.info("Film import validation started: {} films", films.size());
+        for (int i = 0; i < films.size(); i++) {
+            Film film = films.get(i);
+            try {
+                validate(film);
+                if (film.getMpa() == null) {
+                    throw new ValidationException("'mpa' is empty!");
+                }
+            } catch (ValidationException e) {
+                throw new ValidationException("films[" + i + "]: " + e.getMessage());
+            }
+        }
+        long[] filmIds = filmStorage.createAll(films);
+        leaderboard.ifPresent(board -> {
+            for (long filmId : filmIds) {
+                board.register(filmId);
+            }
+        });
+        popularSnapshot.ifPresent(PopularFilmsSnapshot::recordChange);
+        log.info("Films imported: {}", filmIds.length);
+        return filmIds;
+    }
+
     @Override
     public Film update(Film film) {
         checkFilmExisting(film.getId());
-        log.info("Film validation started: " + film);
+        log.debug("Film validation started: {}", film);
         FilmServiceImpl.validate(film);
-        log.info("Film validation successful: " + film);
+        log.debug("Film validation successful: {}", film);
         film = filmStorage.update(film);
-        log.info("Film updated: " + film);
+        popularSnapshot.ifPresent(PopularFilmsSnapshot::invalidate);
+        log.info("Film updated: {}", film);
         return film;
     }
 
@@ -103,29 +164,46 @@ public class FilmServiceImpl implements FilmService {
     public void addLike(long filmId, long userId) {
         checkFilmExisting(filmId);
         userService.checkUserExisting(userId);
-        log.info("Adding like for filmId=" + filmId + " and userId=" + userId);
-        filmStorage.addLike(filmId, userId);
+        log.info("Adding like for filmId={} and userId={}", filmId, userId);
+        if (likeBuffer.isPresent()) {
+            likeBuffer.get().addLike(filmId, userId);
+        } else if (filmStorage.addLike(filmId, userId)) {
+            leaderboard.ifPresent(board -> board.refresh(filmId));
+        }
+        popularSnapshot.ifPresent(PopularFilmsSnapshot::recordChange);
     }
 
     @Override
     public void deleteLike(long filmId, long userId) {
         checkFilmExisting(filmId);
         userService.checkUserExisting(userId);
-        log.info("Deleting like for filmId=" + filmId + " and userId=" + userId);
-        filmStorage.deleteLike(filmId, userId);
+        log.info("Deleting like for filmId={} and userId={}", filmId, userId);
+        if (likeBuffer.isPresent()) {
+            likeBuffer.get().deleteLike(filmId, userId);
+        } else if (filmStorage.deleteLike(filmId, userId)) {
+            leaderboard.ifPresent(board -> board.refresh(filmId));
+        }
+        popularSnapshot.ifPresent(PopularFilmsSnapshot::recordChange);
     }
 
     @Override
     public Collection<Film> getTopFilms(int count) {
-        log.info("Getting top " + count + " films");
-        return filmStorage.getLikes()
-                .entrySet()
-                .stream()
-                .sorted(Comparator.comparing(e -> e.getValue().size(), Comparator.reverseOrder()))
-                .limit(count)
-                .map(Map.Entry::getKey)
-                .map(this::getFilmById)
-                .collect(Collectors.toCollection(LinkedList::new));
+        log.info("Getting top {} films", count);
+        return leaderboard.map(board -> filmStorage.getFilms(board.getTop(count)))
+                .orElseGet(() -> filmStorage.getTopFilms(count));
+    }
+
+    @Override
+    public String getTopFilmsVersion(int count) {
+        List<Long> filmIds = leaderboard.map(board -> board.getTop(count))
+                .orElseGet(() -> filmStorage.getTopFilmIds(count));
+        Map<Long, Long> versions = filmStorage.getVersions(filmIds);
+        long hash = count;
+        for (Long filmId : filmIds) {
+            hash = 31 * hash + filmId;
+            hash = 31 * hash + versions.getOrDefault(filmId, -1L);
+        }
+        return Long.toHexString(hash);
     }
 
     @Override
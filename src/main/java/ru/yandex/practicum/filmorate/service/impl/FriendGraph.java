@@ -0,0 +1,338 @@
+package ru.yandex.practicum.filmorate.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static ru.yandex.practicum.filmorate.storage.StorageUtils.intersectSorted;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "filmorate.friend-graph.enabled", havingValue = "true", matchIfMissing = true)
+public class FriendGraph {
+    private static final int LOCK_STRIPES = 64;
+
+    private final UserStorage userStorage;
+    private final int compactionThreshold;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Lock[] pairLocks = new Lock[LOCK_STRIPES];
+    private final AtomicBoolean compactionScheduled = new AtomicBoolean();
+    private final ExecutorService executor;
+    private Map<Long, NavigableSet<Long>> added = new HashMap<>();
+    private Map<Long, Set<Long>> removed = new HashMap<>();
+    private Csr base = new CsrBuilder().build();
+    private int deltaSize;
+    private long generation;
+    private List<Change> changesDuringCompaction;
+
+    public FriendGraph(UserStorage userStorage,
+                       @Value("${filmorate.friend-graph.compaction-threshold:10000}") int compactionThreshold) {
+        this.userStorage = userStorage;
+        this.compactionThreshold = compactionThreshold;
+        Arrays.setAll(pairLocks, i -> new ReentrantLock());
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "friend-graph-compaction");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PostConstruct
+    public void load() {
+        CsrBuilder builder = new CsrBuilder();
+        userStorage.forEachFriendship(builder::add);
+        Csr loaded = builder.build();
+        lock.writeLock().lock();
+        try {
+            base = loaded;
+            added = new HashMap<>();
+            removed = new HashMap<>();
+            deltaSize = 0;
+            generation++;
+            changesDuringCompaction = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Friend graph loaded: {} users, {} friendships", loaded.users.length, loaded.friends.length);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    public long[] getFriendIds(long userId) {
+        lock.readLock().lock();
+        try {
+            return friendIds(base, added, removed, userId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long[] getCommonFriendIds(long userId, long otherId) {
+        lock.readLock().lock();
+        try {
+            return intersectSorted(friendIds(base, added, removed, userId), friendIds(base, added, removed, otherId));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void refresh(long userId, long friendId) {
+        Lock pairLock = pairLocks[(int) ((userId * 31 + friendId) & (LOCK_STRIPES - 1))];
+        pairLock.lock();
+        try {
+            if (userStorage.isFriend(userId, friendId)) {
+                addFriend(userId, friendId);
+            } else {
+                deleteFriend(userId, friendId);
+            }
+        } finally {
+            pairLock.unlock();
+        }
+    }
+
+    public void addFriend(long userId, long friendId) {
+        update(userId, friendId, true);
+    }
+
+    public void deleteFriend(long userId, long friendId) {
+        update(userId, friendId, false);
+    }
+
+    public void compact() {
+        Csr snapshotBase;
+        Map<Long, NavigableSet<Long>> snapshotAdded = new HashMap<>();
+        Map<Long, Set<Long>> snapshotRemoved = new HashMap<>();
+        long snapshotGeneration;
+        lock.writeLock().lock();
+        try {
+            if (deltaSize == 0 || changesDuringCompaction != null) {
+                return;
+            }
+            snapshotBase = base;
+            added.forEach((userId, friendIds) -> snapshotAdded.put(userId, new TreeSet<>(friendIds)));
+            removed.forEach((userId, friendIds) -> snapshotRemoved.put(userId, new HashSet<>(friendIds)));
+            snapshotGeneration = generation;
+            changesDuringCompaction = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        Csr compacted = null;
+        try {
+            compacted = rebuild(snapshotBase, snapshotAdded, snapshotRemoved);
+        } finally {
+            lock.writeLock().lock();
+            try {
+                List<Change> changes = changesDuringCompaction;
+                changesDuringCompaction = null;
+                if (compacted != null && generation == snapshotGeneration) {
+                    base = compacted;
+                    added = new HashMap<>();
+                    removed = new HashMap<>();
+                    deltaSize = 0;
+                    generation++;
+                    changes.forEach(change -> apply(change.userId, change.friendId, change.add));
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private void update(long userId, long friendId, boolean add) {
+        boolean compactionNeeded;
+        lock.writeLock().lock();
+        try {
+            apply(userId, friendId, add);
+            if (changesDuringCompaction != null) {
+                changesDuringCompaction.add(new Change(userId, friendId, add));
+            }
+            compactionNeeded = deltaSize >= compactionThreshold;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (compactionNeeded) {
+            scheduleCompaction();
+        }
+    }
+
+    private void apply(long userId, long friendId, boolean add) {
+        if (add) {
+            Set<Long> userRemoved = removed.get(userId);
+            if (userRemoved != null && userRemoved.remove(friendId)) {
+                deltaSize--;
+                if (userRemoved.isEmpty()) {
+                    removed.remove(userId);
+                }
+            }
+            if (!base.contains(userId, friendId) && added.computeIfAbsent(userId, id -> new TreeSet<>()).add(friendId)) {
+                deltaSize++;
+            }
+        } else {
+            NavigableSet<Long> userAdded = added.get(userId);
+            if (userAdded != null && userAdded.remove(friendId)) {
+                deltaSize--;
+                if (userAdded.isEmpty()) {
+                    added.remove(userId);
+                }
+            }
+            if (base.contains(userId, friendId) && removed.computeIfAbsent(userId, id -> new HashSet<>()).add(friendId)) {
+                deltaSize++;
+            }
+        }
+    }
+
+    private void scheduleCompaction() {
+        if (!executor.isShutdown() && compactionScheduled.compareAndSet(false, true)) {
+            executor.execute(() -> {
+                compactionScheduled.set(false);
+                compactQuietly();
+            });
+        }
+    }
+
+    private void compactQuietly() {
+        try {
+            compact();
+        } catch (RuntimeException e) {
+            log.error("Friend graph compaction failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private static Csr rebuild(Csr base, Map<Long, NavigableSet<Long>> added, Map<Long, Set<Long>> removed) {
+        Set<Long> userIds = new TreeSet<>(added.keySet());
+        for (long userId : base.users) {
+            userIds.add(userId);
+        }
+        CsrBuilder builder = new CsrBuilder();
+        for (long userId : userIds) {
+            for (long friendId : friendIds(base, added, removed, userId)) {
+                builder.add(userId, friendId);
+            }
+        }
+        return builder.build();
+    }
+
+    private static long[] friendIds(Csr base, Map<Long, NavigableSet<Long>> added, Map<Long, Set<Long>> removed,
+                                    long userId) {
+        int row = base.row(userId);
+        int from = row < 0 ? 0 : base.offsets[row];
+        int to = row < 0 ? 0 : base.offsets[row + 1];
+        NavigableSet<Long> userAdded = added.get(userId);
+        Set<Long> userRemoved = removed.get(userId);
+        if (userAdded == null && userRemoved == null) {
+            return Arrays.copyOfRange(base.friends, from, to);
+        }
+        long[] result = new long[to - from + (userAdded == null ? 0 : userAdded.size())];
+        int size = 0;
+        Iterator<Long> addedIterator = userAdded == null ? null : userAdded.iterator();
+        long next = addedIterator != null && addedIterator.hasNext() ? addedIterator.next() : Long.MAX_VALUE;
+        for (int i = from; i < to; i++) {
+            long friendId = base.friends[i];
+            while (next < friendId) {
+                result[size++] = next;
+                next = addedIterator.hasNext() ? addedIterator.next() : Long.MAX_VALUE;
+            }
+            if (userRemoved == null || !userRemoved.contains(friendId)) {
+                result[size++] = friendId;
+            }
+        }
+        while (next != Long.MAX_VALUE) {
+            result[size++] = next;
+            next = addedIterator.hasNext() ? addedIterator.next() : Long.MAX_VALUE;
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    private static final class Change {
+        private final long userId;
+        private final long friendId;
+        private final boolean add;
+
+        private Change(long userId, long friendId, boolean add) {
+            this.userId = userId;
+            this.friendId = friendId;
+            this.add = add;
+        }
+    }
+
+    private static final class Csr {
+        private final long[] users;
+        private final int[] offsets;
+        private final long[] friends;
+
+        private Csr(long[] users, int[] offsets, long[] friends) {
+            this.users = users;
+            this.offsets = offsets;
+            this.friends = friends;
+        }
+
+        private int row(long userId) {
+            return Arrays.binarySearch(users, userId);
+        }
+
+        private boolean contains(long userId, long friendId) {
+            int row = row(userId);
+            return row >= 0 && Arrays.binarySearch(friends, offsets[row], offsets[row + 1], friendId) >= 0;
+        }
+    }
+
+    private static final class CsrBuilder {
+        private long[] users = new long[16];
+        private int[] offsets = new int[17];
+        private long[] friends = new long[16];
+        private int userCount;
+        private int friendCount;
+
+        private void add(long userId, long friendId) {
+            if (userCount == 0 || users[userCount - 1] != userId) {
+                if (userCount > 0 && userId < users[userCount - 1]) {
+                    throw new IllegalArgumentException("Friendships must be ordered by user id");
+                }
+                if (userCount == users.length) {
+                    users = Arrays.copyOf(users, userCount * 2);
+                    offsets = Arrays.copyOf(offsets, userCount * 2 + 1);
+                }
+                users[userCount] = userId;
+                offsets[userCount] = friendCount;
+                userCount++;
+            }
+            if (friendCount == friends.length) {
+                friends = Arrays.copyOf(friends, friendCount * 2);
+            }
+            friends[friendCount++] = friendId;
+        }
+
+        private Csr build() {
+            int[] rowOffsets = Arrays.copyOf(offsets, userCount + 1);
+            rowOffsets[userCount] = friendCount;
+            return new Csr(Arrays.copyOf(users, userCount), rowOffsets, Arrays.copyOf(friends, friendCount));
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package ru.yandex.practicum.filmorate.service.impl;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Like;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "filmorate.likes.write-behind.enabled", havingValue = "true")
+public class LikeWriteBuffer implements MeterBinder {
+    private final FilmStorage filmStorage;
+    private final Optional<FilmLeaderboard> leaderboard;
+    private final int maxSize;
+    private final int flushSize;
+    private final long flushIntervalMs;
+    private final Map<Like, Boolean> pending = new LinkedHashMap<>();
+    private final Lock flushLock = new ReentrantLock();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final AtomicLong flushed = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private ScheduledExecutorService executor;
+
+    public LikeWriteBuffer(FilmStorage filmStorage,
+                           Optional<FilmLeaderboard> leaderboard,
+                           @Value("${filmorate.likes.write-behind.max-size:100000}") int maxSize,
+                           @Value("${filmorate.likes.write-behind.flush-size:1000}") int flushSize,
+                           @Value("${filmorate.likes.write-behind.flush-interval-ms:200}") long flushIntervalMs) {
+        this.filmStorage = filmStorage;
+        this.leaderboard = leaderboard;
+        this.maxSize = maxSize;
+        this.flushSize = flushSize;
+        this.flushIntervalMs = flushIntervalMs;
+    }
+
+    @PostConstruct
+    public void start() {
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "like-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        log.info("Like write-behind started: max size {}, flush size {}, flush interval {} ms",
+                maxSize, flushSize, flushIntervalMs);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (executor != null) {
+            executor.shutdown();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+        flush();
+        log.info("Like write-behind stopped, {} likes flushed in total", flushed.get());
+    }
+
+    public void addLike(long filmId, long userId) {
+        put(filmId, userId, true);
+    }
+
+    public void deleteLike(long filmId, long userId) {
+        put(filmId, userId, false);
+    }
+
+    public int getPending() {
+        synchronized (pending) {
+            return pending.size();
+        }
+    }
+
+    public long getFlushed() {
+        return flushed.get();
+    }
+
+    public long getCoalesced() {
+        return coalesced.get();
+    }
+
+    public void flush() {
+        flushLock.lock();
+        try {
+            Map<Like, Boolean> batch;
+            synchronized (pending) {
+                if (pending.isEmpty()) {
+                    return;
+                }
+                batch = new LinkedHashMap<>(pending);
+                pending.clear();
+            }
+            List<Like> added = new ArrayList<>();
+            List<Like> deleted = new ArrayList<>();
+            batch.forEach((like, add) -> (add ? added : deleted).add(like));
+            try {
+                if (!added.isEmpty()) {
+                    List<Like> changed = filmStorage.addLikes(added);
+                    leaderboard.ifPresent(board -> refresh(board, changed));
+                    added.forEach(batch::remove);
+                    flushed.addAndGet(changed.size());
+                }
+                if (!deleted.isEmpty()) {
+                    List<Like> changed = filmStorage.deleteLikes(deleted);
+                    leaderboard.ifPresent(board -> refresh(board, changed));
+                    deleted.forEach(batch::remove);
+                    flushed.addAndGet(changed.size());
+                }
+            } catch (RuntimeException e) {
+                requeue(batch);
+                throw e;
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("filmorate.likes.pending", this, LikeWriteBuffer::getPending)
+                .description("Likes waiting to be written to the database.")
+                .register(registry);
+        FunctionCounter.builder("filmorate.likes.flushed", flushed, AtomicLong::get)
+                .description("Likes inserted into or deleted from the database by the write-behind buffer.")
+                .register(registry);
+        FunctionCounter.builder("filmorate.likes.coalesced", coalesced, AtomicLong::get)
+                .description("Likes replaced by a later like or unlike before being written.")
+                .register(registry);
+    }
+
+    private void put(long filmId, long userId, boolean add) {
+        Like like = Like.builder()
+                .filmId(filmId)
+                .userId(userId)
+                .build();
+        while (true) {
+            synchronized (pending) {
+                if (pending.containsKey(like) || pending.size() < maxSize) {
+                    if (pending.put(like, add) != null) {
+                        coalesced.incrementAndGet();
+                    }
+                    if (pending.size() >= flushSize) {
+                        scheduleFlush();
+                    }
+                    return;
+                }
+            }
+            flush();
+        }
+    }
+
+    private void scheduleFlush() {
+        if (executor != null && !executor.isShutdown() && flushScheduled.compareAndSet(false, true)) {
+            executor.execute(() -> {
+                flushScheduled.set(false);
+                flushQuietly();
+            });
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Like write-behind flush failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private void refresh(FilmLeaderboard board, List<Like> changed) {
+        changed.stream()
+                .map(Like::getFilmId)
+                .distinct()
+                .forEach(board::refresh);
+    }
+
+    private void requeue(Map<Like, Boolean> batch) {
+        synchronized (pending) {
+            Map<Like, Boolean> newer = new LinkedHashMap<>(pending);
+            pending.clear();
+            pending.putAll(batch);
+            pending.putAll(newer);
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package ru.yandex.practicum.filmorate.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "filmorate.popular-snapshot.enabled", havingValue = "true")
+public class PopularFilmsSnapshot implements MeterBinder {
+    private final FilmStorage filmStorage;
+    private final Optional<FilmLeaderboard> leaderboard;
+    private final ObjectMapper objectMapper;
+    private final long maxAgeMs;
+    private final long maxChanges;
+    private final int maxCount;
+    private final Map<Integer, Snapshot> snapshots = new ConcurrentHashMap<>();
+    private final AtomicLong changes = new AtomicLong();
+    private final AtomicLong refreshes = new AtomicLong();
+    private final AtomicBoolean refreshScheduled = new AtomicBoolean();
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile long generation;
+    private volatile long refreshedChanges;
+    private ScheduledExecutorService executor;
+
+    public PopularFilmsSnapshot(FilmStorage filmStorage,
+                                Optional<FilmLeaderboard> leaderboard,
+                                ObjectMapper objectMapper,
+                                @Value("${filmorate.popular-snapshot.max-age-ms:1000}") long maxAgeMs,
+                                @Value("${filmorate.popular-snapshot.max-changes:100}") long maxChanges,
+                                @Value("${filmorate.popular-snapshot.max-count:100}") int maxCount) {
+        this.filmStorage = filmStorage;
+        this.leaderboard = leaderboard;
+        this.objectMapper = objectMapper;
+        this.maxAgeMs = maxAgeMs;
+        this.maxChanges = maxChanges;
+        this.maxCount = maxCount;
+    }
+
+    @PostConstruct
+    public void start() {
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "popular-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::refreshQuietly, maxAgeMs, maxAgeMs, TimeUnit.MILLISECONDS);
+        log.info("Popular films snapshot started: max age {} ms, max changes {}, max count {}",
+                maxAgeMs, maxChanges, maxCount);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    public Snapshot get(int count) {
+        if (count < 1 || count > maxCount) {
+            return null;
+        }
+        Snapshot snapshot = snapshots.get(count);
+        if (snapshot != null) {
+            return snapshot;
+        }
+        long builtGeneration = generation;
+        long builtChanges = changes.get();
+        snapshot = build(loadTop(count));
+        lock.lock();
+        try {
+            if (generation != builtGeneration) {
+                return snapshot;
+            }
+            Snapshot existing = snapshots.putIfAbsent(count, snapshot);
+            if (existing != null) {
+                return existing;
+            }
+            if (builtChanges < refreshedChanges) {
+                refreshedChanges = builtChanges;
+            }
+            return snapshot;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void recordChange() {
+        if (changes.incrementAndGet() - refreshedChanges >= maxChanges) {
+            scheduleRefresh();
+        }
+    }
+
+    public void invalidate() {
+        lock.lock();
+        try {
+            generation++;
+            changes.incrementAndGet();
+            snapshots.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void refresh() {
+        long refreshChanges = changes.get();
+        if (refreshChanges == refreshedChanges) {
+            return;
+        }
+        long builtGeneration = generation;
+        List<Integer> counts = new ArrayList<>(snapshots.keySet());
+        Map<Integer, Snapshot> built = new HashMap<>();
+        if (!counts.isEmpty()) {
+            List<Film> top = loadTop(Collections.max(counts));
+            for (Integer count : counts) {
+                built.put(count, build(top.subList(0, Math.min(count, top.size()))));
+            }
+        }
+        lock.lock();
+        try {
+            if (generation != builtGeneration) {
+                return;
+            }
+            built.forEach((count, snapshot) -> snapshots.replace(count, snapshot));
+            refreshedChanges = refreshChanges;
+        } finally {
+            lock.unlock();
+        }
+        refreshes.incrementAndGet();
+    }
+
+    public long getAgeMillis() {
+        long now = System.nanoTime();
+        return snapshots.values()
+                .stream()
+                .mapToLong(snapshot -> TimeUnit.NANOSECONDS.toMillis(now - snapshot.createdAt))
+                .max()
+                .orElse(0);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        TimeGauge.builder("filmorate.popular.snapshot.age", this, TimeUnit.MILLISECONDS, PopularFilmsSnapshot::getAgeMillis)
+                .description("Age of the oldest pre-serialized popular films snapshot.")
+                .register(registry);
+        FunctionCounter.builder("filmorate.popular.snapshot.refreshes", refreshes, AtomicLong::get)
+                .description("Popular films snapshot refreshes.")
+                .register(registry);
+    }
+
+    private List<Film> loadTop(int count) {
+        return leaderboard.map(board -> filmStorage.getFilms(board.getTop(count)))
+                .orElseGet(() -> filmStorage.getTopFilms(count));
+    }
+
+    private Snapshot build(List<Film> films) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(films);
+            return new Snapshot(json, DigestUtils.md5DigestAsHex(json), System.nanoTime());
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void scheduleRefresh() {
+        if (executor != null && !executor.isShutdown() && refreshScheduled.compareAndSet(false, true)) {
+            executor.execute(() -> {
+                refreshScheduled.set(false);
+                refreshQuietly();
+            });
+        }
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            log.error("Popular films snapshot refresh failed: {}", e.getMessage(), e);
+        }
+    }
+
+    public static final class Snapshot {
+        private final byte[] json;
+        private final String hash;
+        private final long createdAt;
+
+        private Snapshot(byte[] json, String hash, long createdAt) {
+            this.json = json;
+            this.hash = hash;
+            this.createdAt = createdAt;
+        }
+
+        public Resource getJson() {
+            return new AbstractResource() {
+                @Override
+                public String getDescription() {
+                    return "Popular films snapshot " + hash;
+                }
+
+                @Override
+                public InputStream getInputStream() {
+                    return new ByteArrayInputStream(json);
+                }
+
+                @Override
+                public long contentLength() {
+                    return json.length;
+                }
+            };
+        }
+
+        public String getHash() {
+            return hash;
+        }
+    }
+}
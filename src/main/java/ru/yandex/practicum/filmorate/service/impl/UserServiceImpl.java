@@ -1,124 +1,281 @@
 package ru.yandex.practicum.filmorate.service.impl;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 import ru.yandex.practicum.filmorate.exception.UserNotFoundException;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.ImportResult;
+import ru.yandex.practicum.filmorate.model.Page;
 import ru.yandex.practicum.filmorate.model.User;
 import ru.yandex.practicum.filmorate.service.UserService;
 import ru.yandex.practicum.filmorate.storage.user.UserStorage;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 import static org.apache.logging.log4j.util.Strings.isBlank;
+import static ru.yandex.practicum.filmorate.storage.StorageUtils.intersectSorted;
 
 @Slf4j
 @Service
+@Timed(value = "filmorate.service", percentiles = {0.5, 0.95, 0.99}, histogram = true)
 public class UserServiceImpl implements UserService {
+    private static final int MAX_IMPORT_SIZE = 100000;
+    private static final int IMPORT_CHUNK_SIZE = 1000;
+
     private final UserStorage userStorage;
+    private final Optional<FriendGraph> friendGraph;
 
-    public UserServiceImpl(@Qualifier("userDbStorage") UserStorage userStorage) {
+    public UserServiceImpl(UserStorage userStorage, Optional<FriendGraph> friendGraph) {
         this.userStorage = userStorage;
+        this.friendGraph = friendGraph;
     }
 
     public static void validate(User user) throws ValidationException {
         try {
-            if (isBlank(user.getEmail())) {
-                throw new ValidationException("'email' is empty!");
-            }
-            if (!user.getEmail().contains("@")) {
-                throw new ValidationException("'email' must contain '@'!");
-            }
-            if (isBlank(user.getLogin())) {
-                throw new ValidationException("'login' is empty!");
-            }
-            if (user.getLogin().contains(" ")) {
-                throw new ValidationException("'login' must not contain blanks!");
-            }
-            if (user.getBirthday() != null && user.getBirthday().isAfter(LocalDate.now())) {
-                throw new ValidationException("'birthday' must not be in future!");
-            }
+            check(user);
         } catch (ValidationException e) {
-            log.error("Validation error: " + e.getMessage() + " for " + user);
+            log.warn("Validation error: {}", e.getMessage());
             throw e;
         }
     }
 
+    private static void check(User user) throws ValidationException {
+        if (isBlank(user.getEmail())) {
+            throw new ValidationException("'email' is empty!");
+        }
+        if (!user.getEmail().contains("@")) {
+            throw new ValidationException("'email' must contain '@'!");
+        }
+        if (isBlank(user.getLogin())) {
+            throw new ValidationException("'login' is empty!");
+        }
+        if (user.getLogin().contains(" ")) {
+            throw new ValidationException("'login' must not contain blanks!");
+        }
+        if (user.getBirthday() != null && user.getBirthday().isAfter(LocalDate.now())) {
+            throw new ValidationException("'birthday' must not be in future!");
+        }
+    }
+
     @Override
     public void checkUserExisting(long userId) {
-        User user = userStorage.getUser(userId);
-        if (user == null) {
-            log.error("Validation error: User not found with id=" + userId);
-            throw new UserNotFoundException("Unknown id=" + userId);
+        if (!userStorage.exists(userId)) {
+            throw userNotFound(userId);
         }
     }
 
+    private UserNotFoundException userNotFound(long userId) {
+        log.error("Validation error: User not found with id={}", userId);
+        return new UserNotFoundException("Unknown id=" + userId);
+    }
+
     @Override
     public Collection<User> getAll() {
         return userStorage.getAll();
     }
 
+    @Override
+    public Page<User> getPage(long afterId, int limit) {
+        return Page.of(userStorage.getPage(afterId, limit + 1), limit, User::getId);
+    }
+
+    @Override
+    public void streamAll(Consumer<User> consumer) {
+        userStorage.streamAll(consumer);
+    }
+
     @Override
     public User getUserById(long userId) {
-        checkUserExisting(userId);
-        return userStorage.getUser(userId);
+        return Optional.ofNullable(userStorage.getUser(userId))
+                .orElseThrow(() -> userNotFound(userId));
     }
 
     @Override
     public User create(User user) {
-        log.info("User validation started: " + user);
+        log.debug("User validation started: {}", user);
         validate(user);
-        log.info("User validation successful: " + user);
-        user = userStorage.create(user);
-        log.info("User created: " + user);
+        log.debug("User validation successful: {}", user);
+        try {
+            user = userStorage.create(user);
+        } catch (DuplicateKeyException e) {
+            throw new ValidationException(takenField(user));
+        }
+        log.info("User created: {}", user);
         return user;
     }
 
+    @Override
+    public List<ImportResult> createAll(List<User> users) {
+        if (users.size() > MAX_IMPORT_SIZE) {
+            throw new ValidationException("import is larger than " + MAX_IMPORT_SIZE + " users!");
+        }
+        log.info("User import started: {} users", users.size());
+        List<ImportResult> results = new ArrayList<>(users.size());
+        Set<String> emails = new HashSet<>();
+        Set<String> logins = new HashSet<>();
+        int imported = 0;
+        int rejected = 0;
+        for (int from = 0; from < users.size(); from += IMPORT_CHUNK_SIZE) {
+            List<User> chunk = users.subList(from, Math.min(from + IMPORT_CHUNK_SIZE, users.size()));
+            Set<String> existingEmails = userStorage.getExistingEmails(chunk.stream()
+                    .map(User::getEmail)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList()));
+            Set<String> existingLogins = userStorage.getExistingLogins(chunk.stream()
+                    .map(User::getLogin)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList()));
+            List<User> accepted = new ArrayList<>();
+            List<Integer> acceptedIndexes = new ArrayList<>();
+            for (int i = 0; i < chunk.size(); i++) {
+                User user = chunk.get(i);
+                try {
+                    check(user);
+                    if (existingEmails.contains(user.getEmail()) || emails.contains(user.getEmail())) {
+                        throw new ValidationException("'email' is already taken!");
+                    }
+                    if (existingLogins.contains(user.getLogin()) || logins.contains(user.getLogin())) {
+                        throw new ValidationException("'login' is already taken!");
+                    }
+                } catch (ValidationException e) {
+                    log.debug("User import row {} rejected: {}", from + i, e.getMessage());
+                    rejected++;
+                    results.add(ImportResult.builder()
+                            .index(from + i)
+                            .error(e.getMessage())
+                            .build());
+                    continue;
+                }
+                emails.add(user.getEmail());
+                logins.add(user.getLogin());
+                if (isBlank(user.getName())) {
+                    user.setName(user.getLogin());
+                }
+                accepted.add(user);
+                acceptedIndexes.add(from + i);
+            }
+            for (ImportResult result : insert(accepted, acceptedIndexes)) {
+                if (result.getError() == null) {
+                    imported++;
+                } else {
+                    rejected++;
+                }
+                results.add(result);
+            }
+        }
+        results.sort(Comparator.comparingInt(ImportResult::getIndex));
+        log.info("Users imported: {} of {}", imported, users.size());
+        if (rejected > 0) {
+            log.warn("User import rejected {} of {} users", rejected, users.size());
+        }
+        return results;
+    }
+
+    private List<ImportResult> insert(List<User> users, List<Integer> indexes) {
+        List<ImportResult> results = new ArrayList<>(users.size());
+        if (users.isEmpty()) {
+            return results;
+        }
+        try {
+            long[] userIds = userStorage.createAll(users);
+            for (int i = 0; i < userIds.length; i++) {
+                results.add(ImportResult.builder()
+                        .index(indexes.get(i))
+                        .id(userIds[i])
+                        .build());
+            }
+            return results;
+        } catch (DuplicateKeyException e) {
+            log.warn("User import chunk of {} users hit a duplicate key, inserting one by one", users.size());
+        }
+        for (int i = 0; i < users.size(); i++) {
+            User user = users.get(i);
+            ImportResult.ImportResultBuilder result = ImportResult.builder().index(indexes.get(i));
+            try {
+                result.id(userStorage.create(user).getId());
+            } catch (DuplicateKeyException e) {
+                log.debug("User import row {} rejected: duplicate key", indexes.get(i));
+                result.error(takenField(user));
+            }
+            results.add(result.build());
+        }
+        return results;
+    }
+
+    private String takenField(User user) {
+        User current = userStorage.getUser(user.getId());
+        boolean emailChanged = current == null || !Objects.equals(current.getEmail(), user.getEmail());
+        return emailChanged && !userStorage.getExistingEmails(List.of(user.getEmail())).isEmpty()
+                ? "'email' is already taken!"
+                : "'login' is already taken!";
+    }
+
     @Override
     public User update(User user) {
         checkUserExisting(user.getId());
-        log.info("User validation started: " + user);
+        log.debug("User validation started: {}", user);
         validate(user);
-        log.info("User validation successful: " + user);
-        user = userStorage.update(user);
-        log.info("User updated: " + user);
+        log.debug("User validation successful: {}", user);
+        try {
+            user = userStorage.update(user);
+        } catch (DuplicateKeyException e) {
+            throw new ValidationException(takenField(user));
+        }
+        log.info("User updated: {}", user);
         return user;
     }
 
     @Override
     public Collection<User> getUserFriends(long userId) {
         checkUserExisting(userId);
-        log.info("Getting friends for userId=" + userId);
-        return userStorage.getUserFriends(userId);
+        log.info("Getting friends for userId={}", userId);
+        return userStorage.getUsers(friendGraph.map(graph -> graph.getFriendIds(userId))
+                .orElseGet(() -> userStorage.getFriendIds(userId)));
+    }
+
+    @Override
+    public long getFriendsVersion(long userId) {
+        return Optional.ofNullable(userStorage.getFriendsVersion(userId))
+                .orElseThrow(() -> userNotFound(userId));
     }
 
     @Override
     public void addFriend(long userId, long friendId) {
         checkUserExisting(userId);
         checkUserExisting(friendId);
-        log.info("Adding friend with friendId=" + friendId + " to user with userId=" + userId);
+        log.info("Adding friend with friendId={} to user with userId={}", friendId, userId);
         userStorage.addFriend(userId, friendId);
+        friendGraph.ifPresent(graph -> graph.refresh(userId, friendId));
     }
 
     @Override
     public void deleteFriend(long userId, long friendId) {
         checkUserExisting(userId);
         checkUserExisting(friendId);
-        log.info("Adding friend with friendId=" + friendId + " from user with userId=" + userId);
+        log.info("Deleting friend with friendId={} from user with userId={}", friendId, userId);
         userStorage.deleteFriend(userId, friendId);
+        friendGraph.ifPresent(graph -> graph.refresh(userId, friendId));
     }
 
     @Override
     public Collection<User> getCommonFriends(long userId, long friendId) {
         checkUserExisting(userId);
         checkUserExisting(friendId);
-        log.info("Getting common friends for users with userId=" + userId + " and friendId=" + friendId);
-        Set<User> userFriends = userStorage.getUserFriends(userId);
-        Set<User> otherFriends = userStorage.getUserFriends(friendId);
-        userFriends.retainAll(otherFriends);
-        return userFriends;
+        log.info("Getting common friends for users with userId={} and friendId={}", userId, friendId);
+        long[] commonFriendIds = friendGraph.map(graph -> graph.getCommonFriendIds(userId, friendId))
+                .orElseGet(() -> intersectSorted(userStorage.getFriendIds(userId), userStorage.getFriendIds(friendId)));
+        return userStorage.getUsers(commonFriendIds);
     }
 }
@@ -0,0 +1,132 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import java.util.Arrays;
+
+public class LongHashSet {
+    private static final int MIN_CAPACITY = 4;
+    private static final long EMPTY = 0;
+
+    private long[] keys;
+    private boolean containsEmpty;
+    private int size;
+
+    public LongHashSet() {
+        keys = new long[MIN_CAPACITY];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(long value) {
+        if (value == EMPTY) {
+            return containsEmpty;
+        }
+        return keys[find(keys, value)] == value;
+    }
+
+    public boolean add(long value) {
+        if (value == EMPTY) {
+            if (containsEmpty) {
+                return false;
+            }
+            containsEmpty = true;
+            size++;
+            return true;
+        }
+        int slot = find(keys, value);
+        if (keys[slot] == value) {
+            return false;
+        }
+        keys[slot] = value;
+        size++;
+        if (size * 4L > keys.length * 3L) {
+            resize(keys.length * 2);
+        }
+        return true;
+    }
+
+    public boolean remove(long value) {
+        if (value == EMPTY) {
+            if (!containsEmpty) {
+                return false;
+            }
+            containsEmpty = false;
+            size--;
+            return true;
+        }
+        int slot = find(keys, value);
+        if (keys[slot] != value) {
+            return false;
+        }
+        shiftBack(slot);
+        size--;
+        if (keys.length > MIN_CAPACITY && size * 8L < keys.length) {
+            resize(keys.length / 2);
+        }
+        return true;
+    }
+
+    public long[] toArray() {
+        long[] values = new long[size];
+        int index = 0;
+        if (containsEmpty) {
+            values[index++] = EMPTY;
+        }
+        for (long key : keys) {
+            if (key != EMPTY) {
+                values[index++] = key;
+            }
+        }
+        return values;
+    }
+
+    public long[] toSortedArray() {
+        long[] values = toArray();
+        Arrays.sort(values);
+        return values;
+    }
+
+    private void shiftBack(int slot) {
+        int mask = keys.length - 1;
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        while (keys[next] != EMPTY) {
+            int home = slot(keys[next], mask);
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[gap] = EMPTY;
+    }
+
+    private void resize(int capacity) {
+        long[] resized = new long[capacity];
+        for (long key : keys) {
+            if (key != EMPTY) {
+                resized[find(resized, key)] = key;
+            }
+        }
+        keys = resized;
+    }
+
+    private static int find(long[] keys, long value) {
+        int mask = keys.length - 1;
+        int slot = slot(value, mask);
+        while (keys[slot] != EMPTY && keys[slot] != value) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static int slot(long value, int mask) {
+        long hash = value * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+}
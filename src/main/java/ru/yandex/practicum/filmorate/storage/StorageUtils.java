@@ -1,13 +1,25 @@
 package ru.yandex.practicum.filmorate.storage;
 
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
 public class StorageUtils {
+    public static final int BATCH_SIZE = 1000;
+
     public static <T, C extends Collection<T>> Collection<T> convertFromOptional(Collection<Optional<T>> collection, Supplier<C> collector) {
         return collection.stream()
                 .filter(Optional::isPresent)
@@ -18,4 +30,77 @@ public class StorageUtils {
     public static <T, C extends List<T>> List<T> convertFromOptionalList(Collection<Optional<T>> collection) {
         return (List<T>) convertFromOptional(collection, ArrayList::new);
     }
+
+    public static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    public static long[] extractLongs(ResultSet rs) throws SQLException {
+        LongStream.Builder values = LongStream.builder();
+        while (rs.next()) {
+            values.add(rs.getLong(1));
+        }
+        return values.build().toArray();
+    }
+
+    public static <T> long[] batchInsert(JdbcTemplate jdbcTemplate, String sqlQuery, String keyColumn, List<T> rows,
+                                         ParameterizedPreparedStatementSetter<T> setter) {
+        return jdbcTemplate.execute((ConnectionCallback<long[]>) connection -> {
+            long[] keys = new long[rows.size()];
+            int size = 0;
+            try (PreparedStatement ps = connection.prepareStatement(sqlQuery, new String[]{keyColumn})) {
+                for (int from = 0; from < rows.size(); from += BATCH_SIZE) {
+                    for (T row : rows.subList(from, Math.min(from + BATCH_SIZE, rows.size()))) {
+                        setter.setValues(ps, row);
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+                    try (ResultSet rs = ps.getGeneratedKeys()) {
+                        while (rs.next()) {
+                            keys[size++] = rs.getLong(1);
+                        }
+                    }
+                }
+            }
+            if (size != keys.length) {
+                throw new IllegalStateException("Expected " + keys.length + " generated keys, got " + size);
+            }
+            return keys;
+        });
+    }
+
+    public static long[] intersectSorted(long[] first, long[] second) {
+        if (first.length > second.length) {
+            return intersectSorted(second, first);
+        }
+        long[] result = new long[first.length];
+        int size = 0;
+        if ((long) first.length * 16 < second.length) {
+            int from = 0;
+            for (long value : first) {
+                int index = Arrays.binarySearch(second, from, second.length, value);
+                if (index >= 0) {
+                    result[size++] = value;
+                    from = index + 1;
+                } else {
+                    from = -index - 1;
+                }
+            }
+        } else {
+            int i = 0;
+            int j = 0;
+            while (i < first.length && j < second.length) {
+                if (first[i] < second[j]) {
+                    i++;
+                } else if (first[i] > second[j]) {
+                    j++;
+                } else {
+                    result[size++] = first[i];
+                    i++;
+                    j++;
+                }
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
 }
@@ -0,0 +1,324 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Like;
+import ru.yandex.practicum.filmorate.model.Mpa;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+@Primary
+@Repository
+@Profile("!memory")
+public class CachingFilmStorage implements FilmStorage {
+    private final FilmStorage filmStorage;
+    private final FilmCacheMetrics metrics;
+    private final Map<Long, Film> films;
+    private final Map<Long, Long> versions;
+    private long generation;
+
+    public CachingFilmStorage(FilmStorage filmStorage, int maxSize) {
+        this(filmStorage, maxSize, new FilmCacheMetrics());
+    }
+
+    @Autowired
+    public CachingFilmStorage(@Qualifier("filmDbStorage") FilmStorage filmStorage,
+                              @Value("${filmorate.film-cache.max-size:10000}") int maxSize,
+                              FilmCacheMetrics metrics) {
+        this.filmStorage = filmStorage;
+        this.metrics = metrics;
+        this.films = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Film> eldest) {
+                if (size() > maxSize) {
+                    metrics.recordEviction();
+                    return true;
+                }
+                return false;
+            }
+        };
+        this.versions = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Long> eldest) {
+                return size() > maxSize;
+            }
+        };
+        metrics.setSize(this::getSize);
+    }
+
+    @Override
+    public Collection<Film> getAll() {
+        return filmStorage.getAll();
+    }
+
+    @Override
+    public List<Film> getPage(long afterId, int limit) {
+        return filmStorage.getPage(afterId, limit);
+    }
+
+    @Override
+    public void streamAll(Consumer<Film> consumer) {
+        filmStorage.streamAll(consumer);
+    }
+
+    @Override
+    public Film create(Film film) {
+        return filmStorage.create(film);
+    }
+
+    @Override
+    public long[] createAll(List<Film> films) {
+        return filmStorage.createAll(films);
+    }
+
+    @Override
+    public Film update(Film film) {
+        try {
+            return filmStorage.update(film);
+        } finally {
+            invalidate(film.getId());
+        }
+    }
+
+    @Override
+    public void delete(Film film) {
+        try {
+            filmStorage.delete(film);
+        } finally {
+            invalidate(film.getId());
+        }
+    }
+
+    @Override
+    public Film getFilm(long filmId) {
+        long loadGeneration;
+        synchronized (films) {
+            Film film = films.get(filmId);
+            if (film != null) {
+                metrics.recordHits(1);
+                return copy(film);
+            }
+            loadGeneration = generation;
+        }
+        metrics.recordMisses(1);
+        Film film = filmStorage.getFilm(filmId);
+        if (film != null) {
+            cache(List.of(film), loadGeneration);
+        }
+        return film;
+    }
+
+    @Override
+    public boolean exists(long filmId) {
+        synchronized (films) {
+            if (films.containsKey(filmId)) {
+                return true;
+            }
+        }
+        return filmStorage.exists(filmId);
+    }
+
+    @Override
+    public List<Film> getFilms(List<Long> filmIds) {
+        Map<Long, Film> found = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        long loadGeneration;
+        synchronized (films) {
+            for (Long filmId : filmIds) {
+                Film film = films.get(filmId);
+                if (film != null) {
+                    found.put(filmId, copy(film));
+                } else {
+                    missing.add(filmId);
+                }
+            }
+            loadGeneration = generation;
+        }
+        metrics.recordHits(found.size());
+        if (!missing.isEmpty()) {
+            metrics.recordMisses(missing.size());
+            List<Film> loaded = filmStorage.getFilms(missing);
+            loaded.forEach(film -> found.put(film.getId(), film));
+            cache(loaded, loadGeneration);
+        }
+        return filmIds.stream()
+                .map(found::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public Long getVersion(long filmId) {
+        long loadGeneration;
+        synchronized (films) {
+            Long version = versions.get(filmId);
+            if (version != null) {
+                return version;
+            }
+            loadGeneration = generation;
+        }
+        Long version = filmStorage.getVersion(filmId);
+        if (version != null) {
+            cacheVersions(Map.of(filmId, version), loadGeneration);
+        }
+        return version;
+    }
+
+    @Override
+    public Map<Long, Long> getVersions(List<Long> filmIds) {
+        Map<Long, Long> found = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        long loadGeneration;
+        synchronized (films) {
+            for (Long filmId : filmIds) {
+                Long version = versions.get(filmId);
+                if (version != null) {
+                    found.put(filmId, version);
+                } else {
+                    missing.add(filmId);
+                }
+            }
+            loadGeneration = generation;
+        }
+        if (!missing.isEmpty()) {
+            Map<Long, Long> loaded = filmStorage.getVersions(missing);
+            found.putAll(loaded);
+            cacheVersions(loaded, loadGeneration);
+        }
+        return found;
+    }
+
+    @Override
+    public boolean addLike(long filmId, long userId) {
+        return filmStorage.addLike(filmId, userId);
+    }
+
+    @Override
+    public boolean deleteLike(long filmId, long userId) {
+        return filmStorage.deleteLike(filmId, userId);
+    }
+
+    @Override
+    public List<Like> addLikes(List<Like> likes) {
+        return filmStorage.addLikes(likes);
+    }
+
+    @Override
+    public List<Like> deleteLikes(List<Like> likes) {
+        return filmStorage.deleteLikes(likes);
+    }
+
+    @Override
+    public Map<Long, Set<Long>> getLikes() {
+        return filmStorage.getLikes();
+    }
+
+    @Override
+    public Long getLikesCount(long filmId) {
+        return filmStorage.getLikesCount(filmId);
+    }
+
+    @Override
+    public List<Film> getTopFilms(int count) {
+        return filmStorage.getTopFilms(count);
+    }
+
+    @Override
+    public List<Long> getTopFilmIds(int count) {
+        return filmStorage.getTopFilmIds(count);
+    }
+
+    @Override
+    public Collection<Genre> getAllGenres() {
+        return filmStorage.getAllGenres();
+    }
+
+    @Override
+    public Genre getGenre(long genreId) {
+        return filmStorage.getGenre(genreId);
+    }
+
+    @Override
+    public Collection<Mpa> getAllMpa() {
+        return filmStorage.getAllMpa();
+    }
+
+    @Override
+    public Mpa getMpa(long mpaId) {
+        return filmStorage.getMpa(mpaId);
+    }
+
+    public void invalidate(long filmId) {
+        synchronized (films) {
+            generation++;
+            films.remove(filmId);
+            versions.remove(filmId);
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (films) {
+            generation++;
+            films.clear();
+            versions.clear();
+        }
+    }
+
+    public long getHits() {
+        return metrics.getHits();
+    }
+
+    public long getMisses() {
+        return metrics.getMisses();
+    }
+
+    public long getEvictions() {
+        return metrics.getEvictions();
+    }
+
+    public int getSize() {
+        synchronized (films) {
+            return films.size();
+        }
+    }
+
+    private void cache(List<Film> loaded, long loadGeneration) {
+        synchronized (films) {
+            if (generation != loadGeneration) {
+                return;
+            }
+            loaded.forEach(film -> films.put(film.getId(), copy(film)));
+        }
+    }
+
+    private void cacheVersions(Map<Long, Long> loaded, long loadGeneration) {
+        synchronized (films) {
+            if (generation != loadGeneration) {
+                return;
+            }
+            versions.putAll(loaded);
+        }
+    }
+
+    private static Film copy(Film film) {
+        return film.toBuilder()
+                .genres(film.getGenres() == null ? null : new LinkedHashSet<>(film.getGenres()))
+                .build();
+    }
+}
@@ -0,0 +1,74 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntSupplier;
+
+@Component
+@Profile("!memory")
+public class FilmCacheMetrics implements MeterBinder {
+    private static final String CACHE_NAME = "films";
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private volatile IntSupplier size = () -> 0;
+
+    public void recordHits(long count) {
+        hits.addAndGet(count);
+    }
+
+    public void recordMisses(long count) {
+        misses.addAndGet(count);
+    }
+
+    public void recordEviction() {
+        evictions.incrementAndGet();
+    }
+
+    public void setSize(IntSupplier size) {
+        this.size = size;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public int getSize() {
+        return size.getAsInt();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("cache.gets", hits, AtomicLong::get)
+                .tags("cache", CACHE_NAME, "result", "hit")
+                .description("The number of times cache lookup methods have returned a cached value.")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", misses, AtomicLong::get)
+                .tags("cache", CACHE_NAME, "result", "miss")
+                .description("The number of times cache lookup methods have not returned a value")
+                .register(registry);
+        FunctionCounter.builder("cache.evictions", evictions, AtomicLong::get)
+                .tags("cache", CACHE_NAME)
+                .description("The number of times the cache was evicted.")
+                .register(registry);
+        Gauge.builder("cache.size", this, FilmCacheMetrics::getSize)
+                .tags("cache", CACHE_NAME)
+                .description("The number of entries in this cache.")
+                .register(registry);
+    }
+}
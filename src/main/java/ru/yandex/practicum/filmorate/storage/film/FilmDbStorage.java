@@ -1,9 +1,14 @@
 package ru.yandex.practicum.filmorate.storage.film;
 
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.Genre;
 import ru.yandex.practicum.filmorate.model.Like;
@@ -13,8 +18,11 @@ import java.sql.Date;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -22,121 +30,104 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
-import static ru.yandex.practicum.filmorate.storage.StorageUtils.convertFromOptionalList;
+import static ru.yandex.practicum.filmorate.storage.StorageUtils.BATCH_SIZE;
+import static ru.yandex.practicum.filmorate.storage.StorageUtils.batchInsert;
+import static ru.yandex.practicum.filmorate.storage.StorageUtils.placeholders;
 
 @Repository
+@Profile("!memory")
 public class FilmDbStorage implements FilmStorage {
+    private static final int FETCH_SIZE = 500;
 
     private final JdbcTemplate jdbcTemplate;
+    private final ReferenceDataRegistry referenceData;
 
-    public FilmDbStorage(JdbcTemplate jdbcTemplate) {
+    public FilmDbStorage(JdbcTemplate jdbcTemplate, ReferenceDataRegistry referenceData) {
         this.jdbcTemplate = jdbcTemplate;
+        this.referenceData = referenceData;
     }
 
     @Override
     public Collection<Film> getAll() {
-        String sqlQuery = "SELECT * FROM FILMS " +
-                "ORDER BY \"film_id\"";
-        return convertFromOptionalList(jdbcTemplate.query(sqlQuery, (rs, rowNum) -> extractFilm(rs)));
+        return queryFilms("film.getAll", "FILMS F ", "", "F.\"film_id\"");
     }
 
-    private Optional<Film> extractFilm(ResultSet rs) throws SQLException {
-        long filmId = rs.getLong("film_id");
-        if (filmId < 1) {
-            return Optional.empty();
-        }
-        return Optional.ofNullable(Film.builder()
-                .id(filmId)
-                .name(rs.getString("title"))
-                .description(rs.getString("description"))
-                .releaseDate(Optional.ofNullable(rs.getDate("release_date")).map(Date::toLocalDate).orElse(null))
-                .duration(rs.getInt("duration"))
-                .genres(getFilmGenres(filmId))
-                .mpa(getMpa(rs.getLong("rating_id")))
-                .build());
+    @Override
+    public List<Film> getPage(long afterId, int limit) {
+        return queryFilms("film.getPage", "(SELECT * FROM FILMS WHERE \"film_id\" > ? ORDER BY \"film_id\" LIMIT ?) F ", "",
+                "F.\"film_id\"", afterId, limit);
     }
 
-    private Optional<Mpa> extractMpa(ResultSet rs) throws SQLException {
-        long mpaId = rs.getLong("rating_id");
-        if (mpaId < 1) {
-            return Optional.empty();
-        }
-        return Optional.ofNullable(Mpa.builder()
-                .id(mpaId)
-                .name(rs.getString("name"))
-                .build());
+    @Override
+    public void streamAll(Consumer<Film> consumer) {
+        String sqlQuery = filmsQuery("film.streamAll", "FILMS F ", "", "F.\"film_id\"");
+        FilmCollector collector = new FilmCollector(consumer);
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sqlQuery,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(FETCH_SIZE);
+            return ps;
+        }, collector);
+        collector.finish();
     }
 
-    private Set<Genre> getFilmGenres(long filmId) {
-        String sqlQuery = "SELECT G.\"genre_id\", G.\"name\" FROM FILM_GENRE FG " +
-                "LEFT JOIN GENRES G on FG.\"genre_id\" = G.\"genre_id\"" +
-                "WHERE FG.\"film_id\" = ?" +
-                "ORDER BY G.\"genre_id\"";
-        List<Genre> genres = convertFromOptionalList(jdbcTemplate.query(sqlQuery, (rs, rowNum) -> extractGenre(rs), filmId));
-        if (genres.isEmpty()) {
-            return Collections.emptySet();
-        }
-        return new LinkedHashSet<>(genres);
+    private List<Film> queryFilms(String name, String films, String condition, String order, Object... args) {
+        List<Film> result = new ArrayList<>();
+        FilmCollector collector = new FilmCollector(result::add);
+        jdbcTemplate.query(filmsQuery(name, films, condition, order), collector, args);
+        collector.finish();
+        return result;
     }
 
-    private Optional<Genre> extractGenre(ResultSet rs) throws SQLException {
-        long genreId = rs.getLong("genre_id");
-        if (genreId < 1) {
-            return Optional.empty();
-        }
-        return Optional.ofNullable(Genre.builder()
-                .id(genreId)
-                .name(rs.getString("name"))
-                .build());
+    private String filmsQuery(String name, String films, String condition, String order) {
+        return "/* " + name + " */ SELECT F.\"film_id\", F.\"title\", F.\"description\", F.\"release_date\", F.\"duration\", " +
+                "F.\"rating_id\", FG.\"genre_id\" " +
+                "FROM " + films +
+                "LEFT JOIN FILM_GENRE FG on F.\"film_id\" = FG.\"film_id\" " +
+                condition +
+                "ORDER BY " + order + ", FG.\"genre_id\"";
+    }
+
+    private Film extractFilm(ResultSet rs, long filmId) throws SQLException {
+        return Film.builder()
+                .id(filmId)
+                .name(rs.getString("title"))
+                .description(rs.getString("description"))
+                .releaseDate(Optional.ofNullable(rs.getDate("release_date")).map(Date::toLocalDate).orElse(null))
+                .duration(rs.getInt("duration"))
+                .genres(new LinkedHashSet<>())
+                .mpa(referenceData.getMpa(rs.getLong("rating_id")))
+                .build();
     }
 
     @Override
     public Collection<Genre> getAllGenres() {
-        String sqlQuery = "SELECT * FROM GENRES G " +
-                "ORDER BY G.\"genre_id\"";
-        List<Genre> genres = convertFromOptionalList(jdbcTemplate.query(sqlQuery, (rs, rowNum) -> extractGenre(rs)));
-        if (genres.isEmpty()) {
-            return Collections.emptySet();
-        }
-        return new LinkedHashSet<>(genres);
+        return referenceData.getAllGenres();
     }
 
     @Override
     public Genre getGenre(long genreId) {
-        String sqlQuery = "SELECT * FROM GENRES G WHERE G.\"genre_id\" = ?";
-        List<Genre> genres = convertFromOptionalList(jdbcTemplate.query(sqlQuery, (rs, rowNum) -> extractGenre(rs), genreId));
-        if (genres.isEmpty()) {
-            return null;
-        }
-        return genres.get(0);
+        return referenceData.getGenre(genreId);
     }
 
     @Override
     public Collection<Mpa> getAllMpa() {
-        String sqlQuery = "SELECT * FROM MPA_RATINGS M " +
-                "ORDER BY M.\"rating_id\"";
-        List<Mpa> mpas = convertFromOptionalList(jdbcTemplate.query(sqlQuery, (rs, rowNum) -> extractMpa(rs)));
-        if (mpas.isEmpty()) {
-            return Collections.emptySet();
-        }
-        return new LinkedHashSet<>(mpas);
+        return referenceData.getAllMpa();
     }
 
     @Override
     public Mpa getMpa(long mpaId) {
-        String sqlQuery = "SELECT * FROM MPA_RATINGS M WHERE M.\"rating_id\" = ?";
-        List<Mpa> mpas = convertFromOptionalList(jdbcTemplate.query(sqlQuery, (rs, rowNum) -> extractMpa(rs), mpaId));
-        if (mpas.isEmpty()) {
-            return null;
-        }
-        return mpas.get(0);
+        return referenceData.getMpa(mpaId);
     }
 
     @Override
+    @Transactional
     public Film create(Film film) {
         final String sqlQuery =
-                "INSERT INTO FILMS (\"title\", \"description\", \"release_date\", \"duration\", \"rating_id\") " +
+                "/* film.create */ INSERT INTO FILMS (\"title\", \"description\", \"release_date\", \"duration\", \"rating_id\") " +
                         "VALUES (?, ?, ?, ?, ?)";
         KeyHolder keyHolder = new GeneratedKeyHolder();
         jdbcTemplate.update(connection -> {
@@ -149,17 +140,39 @@ public class FilmDbStorage implements FilmStorage {
             return ps;
         }, keyHolder);
         long filmId = Objects.requireNonNull(keyHolder.getKey()).longValue();
-        for (Genre genre : Optional.ofNullable(film.getGenres()).orElse(new LinkedHashSet<>())) {
-            String sqlQueryGenre = "INSERT INTO FILM_GENRE (\"film_id\", \"genre_id\") VALUES (?, ?)";
-            jdbcTemplate.update(sqlQueryGenre, filmId, genre.getId());
-        }
+        insertGenres(filmId, genreIds(film.getGenres()));
         return getFilm(filmId);
     }
 
     @Override
+    @Transactional
+    public long[] createAll(List<Film> films) {
+        final String sqlQuery =
+                "/* film.createAll */ INSERT INTO FILMS (\"title\", \"description\", \"release_date\", \"duration\", \"rating_id\") " +
+                        "VALUES (?, ?, ?, ?, ?)";
+        long[] filmIds = batchInsert(jdbcTemplate, sqlQuery, "film_id", films, (ps, film) -> {
+            ps.setString(1, film.getName());
+            ps.setString(2, film.getDescription());
+            ps.setDate(3, Date.valueOf(film.getReleaseDate()));
+            ps.setInt(4, film.getDuration());
+            ps.setLong(5, film.getMpa().getId());
+        });
+        List<long[]> filmGenres = new ArrayList<>();
+        for (int i = 0; i < filmIds.length; i++) {
+            for (long genreId : genreIds(films.get(i).getGenres())) {
+                filmGenres.add(new long[]{filmIds[i], genreId});
+            }
+        }
+        batchGenres("/* film.insertGenres */ INSERT INTO FILM_GENRE (\"film_id\", \"genre_id\") VALUES (?, ?)", filmGenres);
+        return filmIds;
+    }
+
+    @Override
+    @Transactional
     public Film update(Film film) {
-        String sqlQuery = "UPDATE FILMS " +
-                "SET \"title\" = ?, \"description\" = ?, \"release_date\" = ?, \"duration\" = ?, \"rating_id\" = ? " +
+        String sqlQuery = "/* film.update */ UPDATE FILMS " +
+                "SET \"title\" = ?, \"description\" = ?, \"release_date\" = ?, \"duration\" = ?, \"rating_id\" = ?, " +
+                "\"version\" = \"version\" + 1 " +
                 "WHERE \"film_id\" = ?";
         jdbcTemplate.update(sqlQuery,
                 film.getName(),
@@ -173,29 +186,57 @@ public class FilmDbStorage implements FilmStorage {
     }
 
     private void updateGenres(long filmId, Set<Genre> genres) {
-        String sqlQuery = "DELETE FROM FILM_GENRE WHERE \"film_id\" = ?";
-        jdbcTemplate.update(sqlQuery, filmId);
-        for (Genre genre : Optional.ofNullable(genres).orElse(new LinkedHashSet<>())) {
-            String sqlQueryGenre = "INSERT INTO FILM_GENRE (\"film_id\", \"genre_id\") VALUES (?, ?)";
-            jdbcTemplate.update(sqlQueryGenre, filmId, genre.getId());
+        String sqlQuery = "/* film.getGenreIds */ SELECT \"genre_id\" FROM FILM_GENRE WHERE \"film_id\" = ?";
+        Set<Long> stored = new HashSet<>(jdbcTemplate.queryForList(sqlQuery, Long.class, filmId));
+        Set<Long> requested = genreIds(genres);
+        if (stored.equals(requested)) {
+            return;
+        }
+        List<long[]> removed = stored.stream()
+                .filter(genreId -> !requested.contains(genreId))
+                .map(genreId -> new long[]{filmId, genreId})
+                .collect(Collectors.toList());
+        batchGenres("/* film.deleteGenres */ DELETE FROM FILM_GENRE WHERE \"film_id\" = ? AND \"genre_id\" = ?", removed);
+        requested.removeAll(stored);
+        insertGenres(filmId, requested);
+    }
+
+    private void insertGenres(long filmId, Set<Long> genreIds) {
+        List<long[]> filmGenres = genreIds.stream()
+                .map(genreId -> new long[]{filmId, genreId})
+                .collect(Collectors.toList());
+        batchGenres("/* film.insertGenres */ INSERT INTO FILM_GENRE (\"film_id\", \"genre_id\") VALUES (?, ?)", filmGenres);
+    }
+
+    private void batchGenres(String sqlQuery, List<long[]> filmGenres) {
+        if (filmGenres.isEmpty()) {
+            return;
         }
+        jdbcTemplate.batchUpdate(sqlQuery, filmGenres, BATCH_SIZE, (ps, filmGenre) -> {
+            ps.setLong(1, filmGenre[0]);
+            ps.setLong(2, filmGenre[1]);
+        });
+    }
+
+    private Set<Long> genreIds(Set<Genre> genres) {
+        return Optional.ofNullable(genres).orElse(Collections.emptySet())
+                .stream()
+                .map(Genre::getId)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
     }
 
     @Override
     public void delete(Film film) {
-        String sqlQuery = "DELETE FROM FILMS WHERE \"film_id\" = ?";
+        String sqlQuery = "/* film.delete */ DELETE FROM FILMS WHERE \"film_id\" = ?";
         jdbcTemplate.update(sqlQuery, film.getId());
 
-        sqlQuery = "DELETE FROM FILM_GENRE WHERE \"film_id\" = ?";
+        sqlQuery = "/* film.deleteAllGenres */ DELETE FROM FILM_GENRE WHERE \"film_id\" = ?";
         jdbcTemplate.update(sqlQuery, film.getId());
     }
 
     @Override
     public Film getFilm(long filmId) {
-        String sqlQuery = "SELECT * FROM FILMS F " +
-                "WHERE \"film_id\" = ? " +
-                "ORDER BY F.\"film_id\"";
-        List<Film> films = convertFromOptionalList(jdbcTemplate.query(sqlQuery, (rs, rowNum) -> extractFilm(rs), filmId));
+        List<Film> films = queryFilms("film.getFilm", "FILMS F ", "WHERE F.\"film_id\" = ? ", "F.\"film_id\"", filmId);
         if (films.isEmpty()) {
             return null;
         }
@@ -203,20 +244,157 @@ public class FilmDbStorage implements FilmStorage {
     }
 
     @Override
-    public void addLike(long filmId, long userId) {
-        String sqlQuery = "INSERT INTO LIKES (\"film_id\", \"user_id\") VALUES (?, ?)";
-        jdbcTemplate.update(sqlQuery, filmId, userId);
+    public boolean exists(long filmId) {
+        String sqlQuery = "/* film.exists */ SELECT EXISTS (SELECT 1 FROM FILMS WHERE \"film_id\" = ?)";
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(sqlQuery, Boolean.class, filmId));
     }
 
     @Override
-    public void deleteLike(long filmId, long userId) {
-        String sqlQuery = "DELETE FROM LIKES WHERE \"film_id\" = ? AND \"user_id\" = ?";
-        jdbcTemplate.update(sqlQuery, filmId, userId);
+    public Long getVersion(long filmId) {
+        String sqlQuery = "/* film.getVersion */ SELECT \"version\" FROM FILMS WHERE \"film_id\" = ?";
+        List<Long> versions = jdbcTemplate.queryForList(sqlQuery, Long.class, filmId);
+        return versions.isEmpty() ? null : versions.get(0);
+    }
+
+    @Override
+    public Map<Long, Long> getVersions(List<Long> filmIds) {
+        Map<Long, Long> versions = new HashMap<>();
+        for (int from = 0; from < filmIds.size(); from += BATCH_SIZE) {
+            List<Long> batch = filmIds.subList(from, Math.min(from + BATCH_SIZE, filmIds.size()));
+            String sqlQuery = "/* film.getVersions */ SELECT \"film_id\", \"version\" FROM FILMS " +
+                    "WHERE \"film_id\" IN (" + placeholders(batch.size()) + ")";
+            jdbcTemplate.query(sqlQuery, (RowCallbackHandler) rs -> versions.put(rs.getLong("film_id"), rs.getLong("version")),
+                    batch.toArray());
+        }
+        return versions;
+    }
+
+    @Override
+    public List<Film> getFilms(List<Long> filmIds) {
+        if (filmIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<Long, Film> films = new HashMap<>();
+        for (int from = 0; from < filmIds.size(); from += BATCH_SIZE) {
+            List<Long> batch = filmIds.subList(from, Math.min(from + BATCH_SIZE, filmIds.size()));
+            queryFilms("film.getFilms", "FILMS F ", "WHERE F.\"film_id\" IN (" + placeholders(batch.size()) + ") ",
+                    "F.\"film_id\"", batch.toArray()).forEach(film -> films.put(film.getId(), film));
+        }
+        return filmIds.stream()
+                .map(films::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional
+    public boolean addLike(long filmId, long userId) {
+        String sqlQuery = "/* film.addLike */ INSERT INTO LIKES (\"film_id\", \"user_id\") " +
+                "SELECT CAST(? AS BIGINT), CAST(? AS BIGINT) " +
+                "WHERE NOT EXISTS (SELECT 1 FROM LIKES WHERE \"film_id\" = ? AND \"user_id\" = ?)";
+        int added;
+        try {
+            added = jdbcTemplate.update(sqlQuery, filmId, userId, filmId, userId);
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+        updateLikesCount(filmId, added);
+        return added > 0;
+    }
+
+    @Override
+    @Transactional
+    public boolean deleteLike(long filmId, long userId) {
+        String sqlQuery = "/* film.deleteLike */ DELETE FROM LIKES WHERE \"film_id\" = ? AND \"user_id\" = ?";
+        int deleted = jdbcTemplate.update(sqlQuery, filmId, userId);
+        updateLikesCount(filmId, -deleted);
+        return deleted > 0;
+    }
+
+    @Override
+    @Transactional
+    public List<Like> addLikes(List<Like> likes) {
+        String sqlQuery = "/* film.addLikes */ INSERT INTO LIKES (\"film_id\", \"user_id\") " +
+                "SELECT CAST(? AS BIGINT), CAST(? AS BIGINT) " +
+                "WHERE NOT EXISTS (SELECT 1 FROM LIKES WHERE \"film_id\" = ? AND \"user_id\" = ?)";
+        List<Like> added = batchLikes(sqlQuery, likes, (ps, like) -> {
+            ps.setLong(1, like.getFilmId());
+            ps.setLong(2, like.getUserId());
+            ps.setLong(3, like.getFilmId());
+            ps.setLong(4, like.getUserId());
+        });
+        updateLikesCounts(added, 1);
+        return added;
+    }
+
+    @Override
+    @Transactional
+    public List<Like> deleteLikes(List<Like> likes) {
+        String sqlQuery = "/* film.deleteLikes */ DELETE FROM LIKES WHERE \"film_id\" = ? AND \"user_id\" = ?";
+        List<Like> deleted = batchLikes(sqlQuery, likes, (ps, like) -> {
+            ps.setLong(1, like.getFilmId());
+            ps.setLong(2, like.getUserId());
+        });
+        updateLikesCounts(deleted, -1);
+        return deleted;
+    }
+
+    private List<Like> batchLikes(String sqlQuery, List<Like> likes, ParameterizedPreparedStatementSetter<Like> setter) {
+        int[][] counts = jdbcTemplate.batchUpdate(sqlQuery, likes, BATCH_SIZE, setter);
+        List<Like> changed = new ArrayList<>();
+        int index = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                if (count > 0) {
+                    changed.add(likes.get(index));
+                }
+                index++;
+            }
+        }
+        return changed;
+    }
+
+    private void updateLikesCounts(List<Like> likes, int delta) {
+        Map<Long, Integer> deltas = new HashMap<>();
+        likes.forEach(like -> deltas.merge(like.getFilmId(), delta, Integer::sum));
+        String sqlQuery = "/* film.updateLikesCounts */ UPDATE FILMS SET \"likes_count\" = \"likes_count\" + ? WHERE \"film_id\" = ?";
+        jdbcTemplate.batchUpdate(sqlQuery, new ArrayList<>(deltas.entrySet()), BATCH_SIZE, (ps, filmDelta) -> {
+            ps.setInt(1, filmDelta.getValue());
+            ps.setLong(2, filmDelta.getKey());
+        });
+    }
+
+    private void updateLikesCount(long filmId, int delta) {
+        if (delta == 0) {
+            return;
+        }
+        String sqlQuery = "/* film.updateLikesCount */ UPDATE FILMS SET \"likes_count\" = \"likes_count\" + ? WHERE \"film_id\" = ?";
+        jdbcTemplate.update(sqlQuery, delta, filmId);
+    }
+
+    @Override
+    public List<Film> getTopFilms(int count) {
+        return queryFilms("film.getTopFilms", "(SELECT * FROM FILMS ORDER BY \"likes_count\" DESC, \"film_id\" LIMIT ?) F ", "",
+                "F.\"likes_count\" DESC, F.\"film_id\"", count);
+    }
+
+    @Override
+    public List<Long> getTopFilmIds(int count) {
+        String sqlQuery = "/* film.getTopFilmIds */ SELECT \"film_id\" FROM FILMS " +
+                "ORDER BY \"likes_count\" DESC, \"film_id\" LIMIT ?";
+        return jdbcTemplate.queryForList(sqlQuery, Long.class, count);
+    }
+
+    @Override
+    public Long getLikesCount(long filmId) {
+        String sqlQuery = "/* film.getLikesCount */ SELECT \"likes_count\" FROM FILMS WHERE \"film_id\" = ?";
+        List<Long> counts = jdbcTemplate.queryForList(sqlQuery, Long.class, filmId);
+        return counts.isEmpty() ? null : counts.get(0);
     }
 
     @Override
     public Map<Long, Set<Long>> getLikes() {
-        String sqlQuery = "SELECT * FROM FILMS F " +
+        String sqlQuery = "/* film.getLikes */ SELECT * FROM FILMS F " +
                 "LEFT JOIN LIKES L on F.\"film_id\" = L.\"film_id\" " +
                 "ORDER BY L.\"like_id\"";
         Map<Long, Set<Long>> likes = new LinkedHashMap<>();
@@ -245,4 +423,36 @@ public class FilmDbStorage implements FilmStorage {
                 .userId(rs.getLong("user_id"))
                 .build());
     }
+
+    private class FilmCollector implements RowCallbackHandler {
+        private final Consumer<Film> consumer;
+        private Film film;
+
+        private FilmCollector(Consumer<Film> consumer) {
+            this.consumer = consumer;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            long filmId = rs.getLong("film_id");
+            if (filmId < 1) {
+                return;
+            }
+            if (film == null || film.getId() != filmId) {
+                finish();
+                film = extractFilm(rs, filmId);
+            }
+            Genre genre = referenceData.getGenre(rs.getLong("genre_id"));
+            if (genre != null) {
+                film.getGenres().add(genre);
+            }
+        }
+
+        private void finish() {
+            if (film != null) {
+                consumer.accept(film);
+                film = null;
+            }
+        }
+    }
 }
@@ -2,29 +2,56 @@ package ru.yandex.practicum.filmorate.storage.film;
 
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Like;
 import ru.yandex.practicum.filmorate.model.Mpa;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 
 public interface FilmStorage {
     Collection<Film> getAll();
 
+    List<Film> getPage(long afterId, int limit);
+
+    void streamAll(Consumer<Film> consumer);
+
     Film create(Film film);
 
+    long[] createAll(List<Film> films);
+
     Film update(Film film);
 
     void delete(Film film);
 
     Film getFilm(long filmId);
 
-    void addLike(long filmId, long userId);
+    boolean exists(long filmId);
+
+    List<Film> getFilms(List<Long> filmIds);
+
+    Long getVersion(long filmId);
+
+    Map<Long, Long> getVersions(List<Long> filmIds);
 
-    void deleteLike(long filmId, long userId);
+    boolean addLike(long filmId, long userId);
+
+    boolean deleteLike(long filmId, long userId);
+
+    List<Like> addLikes(List<Like> likes);
+
+    List<Like> deleteLikes(List<Like> likes);
 
     Map<Long, Set<Long>> getLikes();
 
+    Long getLikesCount(long filmId);
+
+    List<Film> getTopFilms(int count);
+
+    List<Long> getTopFilmIds(int count);
+
     Collection<Genre> getAllGenres();
 
     Genre getGenre(long genreId);
@@ -1,44 +1,107 @@
 package ru.yandex.practicum.filmorate.storage.film;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Repository;
+import ru.yandex.practicum.filmorate.exception.GenreNotFoundException;
+import ru.yandex.practicum.filmorate.exception.MpaNotFoundException;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Like;
 import ru.yandex.practicum.filmorate.model.Mpa;
 
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 @Repository
+@Profile("memory")
 public class InMemoryFilmStorage implements FilmStorage {
-    private final Map<Long, Film> films = new HashMap<>();
-    private final Map<Long, Set<Long>> likes = new HashMap<>();
+    private final Map<Long, Film> films = new ConcurrentHashMap<>();
+    private final Map<Long, Long> versions = new ConcurrentHashMap<>();
+    private final LikeIndex likes = new LikeIndex();
+    private final AtomicLong ids = new AtomicLong();
+    private final ReferenceDataRegistry referenceData;
+
+    public InMemoryFilmStorage() {
+        this(null);
+    }
+
+    @Autowired
+    public InMemoryFilmStorage(ReferenceDataRegistry referenceData) {
+        this.referenceData = referenceData;
+    }
 
     @Override
     public Collection<Film> getAll() {
-        return films.values();
+        return films.values()
+                .stream()
+                .sorted(Comparator.comparingLong(Film::getId))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<Film> getPage(long afterId, int limit) {
+        return films.values()
+                .stream()
+                .filter(film -> film.getId() > afterId)
+                .sorted(Comparator.comparingLong(Film::getId))
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void streamAll(Consumer<Film> consumer) {
+        films.values()
+                .stream()
+                .sorted(Comparator.comparingLong(Film::getId))
+                .forEach(consumer);
     }
 
     @Override
     public Film create(Film film) {
-        film.setId(createId());
+        resolveReferences(film);
+        film.setId(ids.incrementAndGet());
+        likes.register(film.getId());
+        versions.put(film.getId(), 0L);
         films.put(film.getId(), film);
-        likes.put(film.getId(), new LinkedHashSet<>());
         return film;
     }
 
+    @Override
+    public long[] createAll(List<Film> films) {
+        return films.stream()
+                .mapToLong(film -> create(film).getId())
+                .toArray();
+    }
+
     @Override
     public Film update(Film film) {
-        films.put(film.getId(), film);
+        resolveReferences(film);
+        if (films.replace(film.getId(), film) == null) {
+            return null;
+        }
+        versions.computeIfPresent(film.getId(), (filmId, version) -> version + 1);
         return film;
     }
 
     @Override
     public void delete(Film film) {
-        likes.remove(film.getId());
         films.remove(film.getId());
+        likes.unregister(film.getId());
+        versions.remove(film.getId());
     }
 
     @Override
@@ -47,41 +110,130 @@ public class InMemoryFilmStorage implements FilmStorage {
     }
 
     @Override
-    public void addLike(long filmId, long userId) {
-        likes.getOrDefault(filmId, new LinkedHashSet<>()).add(userId);
+    public boolean exists(long filmId) {
+        return films.containsKey(filmId);
+    }
+
+    @Override
+    public List<Film> getFilms(List<Long> filmIds) {
+        return filmIds.stream()
+                .map(films::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public Long getVersion(long filmId) {
+        return versions.get(filmId);
+    }
+
+    @Override
+    public Map<Long, Long> getVersions(List<Long> filmIds) {
+        Map<Long, Long> found = new HashMap<>();
+        filmIds.forEach(filmId -> {
+            Long version = versions.get(filmId);
+            if (version != null) {
+                found.put(filmId, version);
+            }
+        });
+        return found;
     }
 
     @Override
-    public void deleteLike(long filmId, long userId) {
-        likes.getOrDefault(filmId, new LinkedHashSet<>()).remove(userId);
+    public boolean addLike(long filmId, long userId) {
+        return likes.add(filmId, userId);
+    }
+
+    @Override
+    public boolean deleteLike(long filmId, long userId) {
+        return likes.remove(filmId, userId);
+    }
+
+    @Override
+    public List<Like> addLikes(List<Like> likes) {
+        return likes.stream()
+                .filter(like -> addLike(like.getFilmId(), like.getUserId()))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<Like> deleteLikes(List<Like> likes) {
+        return likes.stream()
+                .filter(like -> deleteLike(like.getFilmId(), like.getUserId()))
+                .collect(Collectors.toList());
     }
 
     @Override
     public Map<Long, Set<Long>> getLikes() {
-        return likes;
+        return likes.toMap();
+    }
+
+    @Override
+    public Long getLikesCount(long filmId) {
+        return films.containsKey(filmId) ? (long) likes.count(filmId) : null;
+    }
+
+    @Override
+    public List<Film> getTopFilms(int count) {
+        return Arrays.stream(likes.getTopFilmIds(count))
+                .mapToObj(films::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<Long> getTopFilmIds(int count) {
+        return Arrays.stream(likes.getTopFilmIds(count))
+                .boxed()
+                .collect(Collectors.toList());
+    }
+
+    public int getLikeCount(long filmId) {
+        return likes.count(filmId);
+    }
+
+    public long[] getLikedFilmIds(long userId) {
+        return likes.getFilmIds(userId);
     }
 
     @Override
     public Collection<Genre> getAllGenres() {
-        return null;
+        return referenceData == null ? Collections.emptyList() : referenceData.getAllGenres();
     }
 
     @Override
     public Genre getGenre(long genreId) {
-        return null;
+        return referenceData == null ? null : referenceData.getGenre(genreId);
     }
 
     @Override
     public Collection<Mpa> getAllMpa() {
-        return null;
+        return referenceData == null ? Collections.emptyList() : referenceData.getAllMpa();
     }
 
     @Override
     public Mpa getMpa(long mpaId) {
-        return null;
+        return referenceData == null ? null : referenceData.getMpa(mpaId);
     }
 
-    private long createId() {
-        return (long) films.values().size() + 1;
+    private void resolveReferences(Film film) {
+        if (referenceData == null) {
+            return;
+        }
+        if (film.getMpa() != null) {
+            long mpaId = film.getMpa().getId();
+            film.setMpa(Optional.ofNullable(referenceData.getMpa(mpaId))
+                    .orElseThrow(() -> new MpaNotFoundException("Unknown id=" + mpaId)));
+        }
+        if (film.getGenres() != null) {
+            film.setGenres(film.getGenres()
+                    .stream()
+                    .map(Genre::getId)
+                    .distinct()
+                    .sorted()
+                    .map(genreId -> Optional.ofNullable(referenceData.getGenre(genreId))
+                            .orElseThrow(() -> new GenreNotFoundException("Unknown id=" + genreId)))
+                    .collect(Collectors.toCollection(LinkedHashSet::new)));
+        }
     }
 }
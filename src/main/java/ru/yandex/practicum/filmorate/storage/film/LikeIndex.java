@@ -0,0 +1,137 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import ru.yandex.practicum.filmorate.storage.LongHashSet;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+public class LikeIndex {
+    private static final long[] EMPTY = new long[0];
+
+    private final Map<Long, LongHashSet> usersByFilm = new ConcurrentHashMap<>();
+    private final Map<Long, LongHashSet> filmsByUser = new ConcurrentHashMap<>();
+
+    public void register(long filmId) {
+        usersByFilm.putIfAbsent(filmId, new LongHashSet());
+    }
+
+    public void unregister(long filmId) {
+        LongHashSet users = usersByFilm.remove(filmId);
+        if (users == null) {
+            return;
+        }
+        synchronized (users) {
+            for (long userId : users.toArray()) {
+                LongHashSet films = filmsByUser.get(userId);
+                if (films != null) {
+                    synchronized (films) {
+                        films.remove(filmId);
+                    }
+                }
+            }
+        }
+    }
+
+    public boolean add(long filmId, long userId) {
+        LongHashSet users = usersByFilm.get(filmId);
+        if (users == null) {
+            return false;
+        }
+        synchronized (users) {
+            if (usersByFilm.get(filmId) != users || !users.add(userId)) {
+                return false;
+            }
+            LongHashSet films = filmsByUser.computeIfAbsent(userId, id -> new LongHashSet());
+            synchronized (films) {
+                films.add(filmId);
+            }
+            return true;
+        }
+    }
+
+    public boolean remove(long filmId, long userId) {
+        LongHashSet users = usersByFilm.get(filmId);
+        if (users == null) {
+            return false;
+        }
+        synchronized (users) {
+            if (!users.remove(userId)) {
+                return false;
+            }
+            LongHashSet films = filmsByUser.get(userId);
+            if (films != null) {
+                synchronized (films) {
+                    films.remove(filmId);
+                }
+            }
+            return true;
+        }
+    }
+
+    public boolean contains(long filmId, long userId) {
+        LongHashSet users = usersByFilm.get(filmId);
+        if (users == null) {
+            return false;
+        }
+        synchronized (users) {
+            return users.contains(userId);
+        }
+    }
+
+    public int count(long filmId) {
+        LongHashSet users = usersByFilm.get(filmId);
+        if (users == null) {
+            return 0;
+        }
+        synchronized (users) {
+            return users.size();
+        }
+    }
+
+    public long[] getUserIds(long filmId) {
+        LongHashSet users = usersByFilm.get(filmId);
+        if (users == null) {
+            return EMPTY;
+        }
+        synchronized (users) {
+            return users.toSortedArray();
+        }
+    }
+
+    public long[] getFilmIds(long userId) {
+        LongHashSet films = filmsByUser.get(userId);
+        if (films == null) {
+            return EMPTY;
+        }
+        synchronized (films) {
+            return films.toSortedArray();
+        }
+    }
+
+    public long[] getTopFilmIds(int count) {
+        return usersByFilm.keySet()
+                .stream()
+                .map(filmId -> new long[]{filmId, count(filmId)})
+                .sorted(Comparator.<long[]>comparingLong(entry -> -entry[1]).thenComparingLong(entry -> entry[0]))
+                .limit(count)
+                .mapToLong(entry -> entry[0])
+                .toArray();
+    }
+
+    public Map<Long, Set<Long>> toMap() {
+        Map<Long, Set<Long>> likes = new LinkedHashMap<>();
+        usersByFilm.keySet()
+                .stream()
+                .sorted()
+                .forEach(filmId -> likes.put(filmId, Arrays.stream(getUserIds(filmId))
+                        .boxed()
+                        .collect(Collectors.toCollection(LinkedHashSet::new))));
+        return likes;
+    }
+}
@@ -0,0 +1,85 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Mpa;
+
+import javax.annotation.PostConstruct;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+@Slf4j
+@Component
+public class ReferenceDataRegistry {
+    private final JdbcTemplate jdbcTemplate;
+    private volatile Map<Long, Genre> genres = Collections.emptyMap();
+    private volatile Map<Long, Mpa> mpas = Collections.emptyMap();
+
+    public ReferenceDataRegistry(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void refresh() {
+        Map<Long, Genre> loadedGenres = new LinkedHashMap<>();
+        String sqlQuery = "/* genre.getAll */ SELECT * FROM GENRES G " +
+                "ORDER BY G.\"genre_id\"";
+        jdbcTemplate.query(sqlQuery, (rs, rowNum) -> extractGenre(rs))
+                .forEach(genre -> genre.ifPresent(g -> loadedGenres.put(g.getId(), g)));
+
+        Map<Long, Mpa> loadedMpas = new LinkedHashMap<>();
+        sqlQuery = "/* mpa.getAll */ SELECT * FROM MPA_RATINGS M " +
+                "ORDER BY M.\"rating_id\"";
+        jdbcTemplate.query(sqlQuery, (rs, rowNum) -> extractMpa(rs))
+                .forEach(mpa -> mpa.ifPresent(m -> loadedMpas.put(m.getId(), m)));
+
+        genres = Collections.unmodifiableMap(loadedGenres);
+        mpas = Collections.unmodifiableMap(loadedMpas);
+        log.info("Reference data loaded: {} genres, {} MPA ratings", loadedGenres.size(), loadedMpas.size());
+    }
+
+    public Collection<Genre> getAllGenres() {
+        return genres.values();
+    }
+
+    public Genre getGenre(long genreId) {
+        return genres.get(genreId);
+    }
+
+    public Collection<Mpa> getAllMpa() {
+        return mpas.values();
+    }
+
+    public Mpa getMpa(long mpaId) {
+        return mpas.get(mpaId);
+    }
+
+    private Optional<Genre> extractGenre(ResultSet rs) throws SQLException {
+        long genreId = rs.getLong("genre_id");
+        if (genreId < 1) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(Genre.builder()
+                .id(genreId)
+                .name(rs.getString("name"))
+                .build());
+    }
+
+    private Optional<Mpa> extractMpa(ResultSet rs) throws SQLException {
+        long mpaId = rs.getLong("rating_id");
+        if (mpaId < 1) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(Mpa.builder()
+                .id(mpaId)
+                .name(rs.getString("name"))
+                .build());
+    }
+}
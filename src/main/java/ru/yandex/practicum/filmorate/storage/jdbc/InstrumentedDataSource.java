@@ -0,0 +1,110 @@
+package ru.yandex.practicum.filmorate.storage.jdbc;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+public class InstrumentedDataSource extends DelegatingDataSource {
+    private final Supplier<QueryMetrics> queryMetrics;
+
+    public InstrumentedDataSource(DataSource targetDataSource, Supplier<QueryMetrics> queryMetrics) {
+        super(targetDataSource);
+        this.queryMetrics = queryMetrics;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return connection(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return connection(super.getConnection(username, password));
+    }
+
+    private Connection connection(Connection target) {
+        return proxy(Connection.class, (proxy, method, args) -> {
+            Object result = invoke(method, target, args);
+            if (method.getName().equals("prepareStatement")) {
+                return statement(PreparedStatement.class, (PreparedStatement) result, (String) args[0], target);
+            }
+            if (method.getName().equals("createStatement")) {
+                return statement(Statement.class, (Statement) result, null, target);
+            }
+            return result;
+        });
+    }
+
+    private <S extends Statement> S statement(Class<S> type, S target, String preparedSql, Connection connection) {
+        Map<Integer, Object> parameters = new TreeMap<>();
+        return proxy(type, (proxy, method, args) -> {
+            String name = method.getName();
+            if (!name.startsWith("execute")) {
+                if (name.startsWith("set") && args != null && args.length > 1 && args[0] instanceof Integer) {
+                    parameters.put((Integer) args[0], args[1]);
+                } else if (name.equals("clearParameters")) {
+                    parameters.clear();
+                }
+                return invoke(method, target, args);
+            }
+            String sql = preparedSql != null ? preparedSql
+                    : args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : null;
+            long start = System.nanoTime();
+            Object result = invoke(method, target, args);
+            queryMetrics.get().recordExecution(sql, System.nanoTime() - start, parameters, connection);
+            if (result instanceof ResultSet) {
+                return resultSet((ResultSet) result, sql);
+            }
+            if (result instanceof Integer || result instanceof Long) {
+                queryMetrics.get().recordRows(sql, ((Number) result).longValue());
+            } else if (result instanceof int[]) {
+                long rows = 0;
+                for (int count : (int[]) result) {
+                    rows += Math.max(count, 0);
+                }
+                queryMetrics.get().recordRows(sql, rows);
+            }
+            return result;
+        });
+    }
+
+    private ResultSet resultSet(ResultSet target, String sql) {
+        long[] rows = new long[1];
+        boolean[] closed = new boolean[1];
+        return proxy(ResultSet.class, (proxy, method, args) -> {
+            Object result = invoke(method, target, args);
+            if (method.getName().equals("next") && Boolean.TRUE.equals(result)) {
+                rows[0]++;
+            } else if (method.getName().equals("close") && !closed[0]) {
+                closed[0] = true;
+                queryMetrics.get().recordRows(sql, rows[0]);
+            }
+            return result;
+        });
+    }
+
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(InstrumentedDataSource.class.getClassLoader(),
+                new Class<?>[]{type}, handler));
+    }
+
+    private static Object invoke(Method method, Object target, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
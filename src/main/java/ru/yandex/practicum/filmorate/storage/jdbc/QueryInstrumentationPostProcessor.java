@@ -0,0 +1,26 @@
+package ru.yandex.practicum.filmorate.storage.jdbc;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+@Component
+@ConditionalOnProperty(name = "filmorate.jdbc.instrumentation.enabled", havingValue = "true", matchIfMissing = true)
+public class QueryInstrumentationPostProcessor implements BeanPostProcessor {
+    private final ObjectProvider<QueryMetrics> queryMetrics;
+
+    public QueryInstrumentationPostProcessor(ObjectProvider<QueryMetrics> queryMetrics) {
+        this.queryMetrics = queryMetrics;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource && !(bean instanceof InstrumentedDataSource)) {
+            return new InstrumentedDataSource((DataSource) bean, queryMetrics::getObject);
+        }
+        return bean;
+    }
+}
@@ -0,0 +1,161 @@
+package ru.yandex.practicum.filmorate.storage.jdbc;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Component
+public class QueryMetrics implements MeterBinder {
+    public static final String UNNAMED = "unnamed";
+
+    private final long slowQueryNanos;
+    private final Map<String, QueryStats> stats = new ConcurrentHashMap<>();
+    private volatile MeterRegistry registry;
+
+    public QueryMetrics(@Value("${filmorate.jdbc.slow-query-threshold-ms:100}") long slowQueryMs) {
+        this.slowQueryNanos = TimeUnit.MILLISECONDS.toNanos(slowQueryMs);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public static String queryName(String sql) {
+        if (sql == null) {
+            return UNNAMED;
+        }
+        String trimmed = sql.trim();
+        int end = trimmed.indexOf("*/");
+        if (!trimmed.startsWith("/*") || end < 0) {
+            return UNNAMED;
+        }
+        return trimmed.substring(2, end).trim();
+    }
+
+    public void recordExecution(String sql, long nanos, Map<Integer, Object> parameters, Connection connection) {
+        String name = queryName(sql);
+        QueryStats queryStats = stats(name);
+        if (queryStats != null) {
+            queryStats.timer.record(nanos, TimeUnit.NANOSECONDS);
+        }
+        if (nanos >= slowQueryNanos) {
+            if (queryStats != null) {
+                queryStats.slowCalls.incrementAndGet();
+            }
+            log.warn("Slow query {} took {} ms: {} with {} parameters {}\n{}", name, TimeUnit.NANOSECONDS.toMillis(nanos),
+                    sql, parameters.size(), parameterTypes(parameters), explain(connection, sql, parameters));
+        }
+    }
+
+    public void recordRows(String sql, long rows) {
+        QueryStats queryStats = stats(queryName(sql));
+        if (queryStats != null) {
+            queryStats.rows.record(rows);
+        }
+    }
+
+    public List<QueryStatistics> getStatistics() {
+        return stats.entrySet()
+                .stream()
+                .map(entry -> statistics(entry.getKey(), entry.getValue()))
+                .sorted(Comparator.comparingDouble(QueryStatistics::getTotalMs).reversed())
+                .collect(Collectors.toList());
+    }
+
+    private QueryStats stats(String name) {
+        MeterRegistry registry = this.registry;
+        if (registry == null) {
+            return null;
+        }
+        return stats.computeIfAbsent(name, key -> new QueryStats(
+                Timer.builder("filmorate.jdbc.query")
+                        .tag("query", key)
+                        .description("Execution time of a named SQL statement.")
+                        .publishPercentiles(0.5, 0.95, 0.99)
+                        .publishPercentileHistogram()
+                        .register(registry),
+                DistributionSummary.builder("filmorate.jdbc.query.rows")
+                        .tag("query", key)
+                        .description("Rows read or written by a named SQL statement.")
+                        .register(registry)));
+    }
+
+    private QueryStatistics statistics(String name, QueryStats queryStats) {
+        HistogramSnapshot snapshot = queryStats.timer.takeSnapshot();
+        QueryStatistics.QueryStatisticsBuilder builder = QueryStatistics.builder()
+                .query(name)
+                .calls(snapshot.count())
+                .totalMs(snapshot.total(TimeUnit.MILLISECONDS))
+                .meanMs(snapshot.mean(TimeUnit.MILLISECONDS))
+                .maxMs(snapshot.max(TimeUnit.MILLISECONDS))
+                .rows((long) queryStats.rows.totalAmount())
+                .slowCalls(queryStats.slowCalls.get());
+        for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+            double value = percentile.value(TimeUnit.MILLISECONDS);
+            if (percentile.percentile() == 0.5) {
+                builder.p50Ms(value);
+            } else if (percentile.percentile() == 0.95) {
+                builder.p95Ms(value);
+            } else if (percentile.percentile() == 0.99) {
+                builder.p99Ms(value);
+            }
+        }
+        return builder.build();
+    }
+
+    private static List<String> parameterTypes(Map<Integer, Object> parameters) {
+        return parameters.values()
+                .stream()
+                .map(value -> value == null ? "null" : value.getClass().getSimpleName())
+                .collect(Collectors.toList());
+    }
+
+    private String explain(Connection connection, String sql, Map<Integer, Object> parameters) {
+        try (PreparedStatement ps = connection.prepareStatement("EXPLAIN " + sql)) {
+            for (Map.Entry<Integer, Object> parameter : parameters.entrySet()) {
+                ps.setObject(parameter.getKey(), parameter.getValue());
+            }
+            List<String> plan = new ArrayList<>();
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    plan.add(rs.getString(1));
+                }
+            }
+            return String.join("\n", plan);
+        } catch (SQLException e) {
+            return "Plan unavailable: " + e.getMessage();
+        }
+    }
+
+    private static final class QueryStats {
+        private final Timer timer;
+        private final DistributionSummary rows;
+        private final AtomicLong slowCalls = new AtomicLong();
+
+        private QueryStats(Timer timer, DistributionSummary rows) {
+            this.timer = timer;
+            this.rows = rows;
+        }
+    }
+}
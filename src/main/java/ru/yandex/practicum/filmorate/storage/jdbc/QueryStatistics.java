@@ -0,0 +1,28 @@
+package ru.yandex.practicum.filmorate.storage.jdbc;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class QueryStatistics {
+    private String query;
+
+    private long calls;
+
+    private double totalMs;
+
+    private double meanMs;
+
+    private double maxMs;
+
+    private double p50Ms;
+
+    private double p95Ms;
+
+    private double p99Ms;
+
+    private long rows;
+
+    private long slowCalls;
+}
@@ -0,0 +1,22 @@
+package ru.yandex.practicum.filmorate.storage.jdbc;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+@Endpoint(id = "queries")
+public class QueryStatsEndpoint {
+    private final QueryMetrics queryMetrics;
+
+    public QueryStatsEndpoint(QueryMetrics queryMetrics) {
+        this.queryMetrics = queryMetrics;
+    }
+
+    @ReadOperation
+    public List<QueryStatistics> queries() {
+        return queryMetrics.getStatistics();
+    }
+}
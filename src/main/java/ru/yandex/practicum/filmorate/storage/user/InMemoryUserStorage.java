@@ -1,24 +1,74 @@
 package ru.yandex.practicum.filmorate.storage.user;
 
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Repository;
 import ru.yandex.practicum.filmorate.model.User;
 
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 import static org.apache.logging.log4j.util.Strings.isBlank;
+import static ru.yandex.practicum.filmorate.model.Friendship.APPROVED;
+import static ru.yandex.practicum.filmorate.model.Friendship.UNAPPROVED;
 
 @Repository
+@Profile("memory")
 public class InMemoryUserStorage implements UserStorage {
-    private final Map<Long, User> users = new HashMap<>();
-    private final Map<Long, Set<Long>> friends = new HashMap<>();
+    private static final int LOCK_STRIPES = 64;
+
+    private final Map<Long, User> users = new ConcurrentHashMap<>();
+    private final Map<String, Long> emails = new ConcurrentHashMap<>();
+    private final Map<String, Long> logins = new ConcurrentHashMap<>();
+    private final Map<Long, NavigableMap<Long, String>> friends = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Long>> followers = new ConcurrentHashMap<>();
+    private final Map<Long, AtomicLong> friendsVersions = new ConcurrentHashMap<>();
+    private final AtomicLong ids = new AtomicLong();
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    public InMemoryUserStorage() {
+        Arrays.setAll(locks, i -> new Object());
+    }
 
     @Override
     public Collection<User> getAll() {
-        return users.values();
+        return users.values()
+                .stream()
+                .sorted(Comparator.comparingLong(User::getId))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<User> getPage(long afterId, int limit) {
+        return users.values()
+                .stream()
+                .filter(user -> user.getId() > afterId)
+                .sorted(Comparator.comparingLong(User::getId))
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void streamAll(Consumer<User> consumer) {
+        users.values()
+                .stream()
+                .sorted(Comparator.comparingLong(User::getId))
+                .forEach(consumer);
     }
 
     @Override
@@ -26,28 +76,104 @@ public class InMemoryUserStorage implements UserStorage {
         if (isBlank(user.getName())) {
             user.setName(user.getLogin());
         }
-        user.setId(createId());
+        long userId = ids.incrementAndGet();
+        claim(user, userId);
+        user.setId(userId);
+        friends.put(user.getId(), new ConcurrentSkipListMap<>());
+        friendsVersions.put(user.getId(), new AtomicLong());
         users.put(user.getId(), user);
-        friends.put(user.getId(), new LinkedHashSet<>());
         return user;
     }
 
+    @Override
+    public long[] createAll(List<User> users) {
+        Set<String> batchEmails = new HashSet<>();
+        Set<String> batchLogins = new HashSet<>();
+        for (User user : users) {
+            if (taken(emails, user.getEmail()) || !batchEmails.add(user.getEmail())) {
+                throw new DuplicateKeyException("Duplicate user email");
+            }
+            if (taken(logins, user.getLogin()) || !batchLogins.add(user.getLogin())) {
+                throw new DuplicateKeyException("Duplicate user login");
+            }
+        }
+        return users.stream()
+                .mapToLong(user -> create(user).getId())
+                .toArray();
+    }
+
+    @Override
+    public Set<String> getExistingEmails(Collection<String> values) {
+        return getExistingValues(emails, values);
+    }
+
+    @Override
+    public Set<String> getExistingLogins(Collection<String> values) {
+        return getExistingValues(logins, values);
+    }
+
+    private static Set<String> getExistingValues(Map<String, Long> index, Collection<String> values) {
+        return values.stream()
+                .filter(value -> taken(index, value))
+                .collect(Collectors.toSet());
+    }
+
     @Override
     public User update(User user) {
         if (isBlank(user.getName())) {
             user.setName(user.getLogin());
         }
-        users.put(user.getId(), user);
+        User current = users.get(user.getId());
+        if (current == null) {
+            return null;
+        }
+        claim(user, user.getId());
+        if (users.replace(user.getId(), user) == null) {
+            release(user, user.getId());
+            return null;
+        }
+        if (!Objects.equals(current.getEmail(), user.getEmail())) {
+            release(emails, current.getEmail(), user.getId());
+        }
+        if (!Objects.equals(current.getLogin(), user.getLogin())) {
+            release(logins, current.getLogin(), user.getId());
+        }
+        touchFollowers(user.getId());
         return user;
     }
 
     @Override
     public void delete(User user) {
         long userId = user.getId();
-        Set<Long> friendIds = friends.get(userId);
-        friendIds.forEach(id -> friends.get(id).remove(userId));
-        friends.remove(userId);
-        users.remove(userId);
+        User removed = users.remove(userId);
+        if (removed != null) {
+            release(removed, userId);
+        }
+        touchFollowers(userId);
+        friendsVersions.remove(userId);
+        NavigableMap<Long, String> userFriends = friends.remove(userId);
+        if (userFriends != null) {
+            userFriends.keySet().forEach(friendId -> {
+                synchronized (lock(userId, friendId)) {
+                    Map<Long, String> opposite = friends.get(friendId);
+                    if (opposite != null) {
+                        opposite.replace(userId, UNAPPROVED);
+                    }
+                    removeFollower(friendId, userId);
+                }
+            });
+        }
+        Set<Long> userFollowers = followers.remove(userId);
+        if (userFollowers != null) {
+            userFollowers.forEach(followerId -> {
+                synchronized (lock(followerId, userId)) {
+                    Map<Long, String> followerFriends = friends.get(followerId);
+                    if (followerFriends != null) {
+                        followerFriends.remove(userId);
+                    }
+                }
+            });
+        }
     }
 
     @Override
@@ -55,27 +181,152 @@ public class InMemoryUserStorage implements UserStorage {
         return users.get(userId);
     }
 
+    @Override
+    public boolean exists(long userId) {
+        return users.containsKey(userId);
+    }
+
     @Override
     public void addFriend(long userId, long friendId) {
-        friends.getOrDefault(userId, new LinkedHashSet<>()).add(friendId);
-        friends.getOrDefault(friendId, new LinkedHashSet<>()).add(userId);
+        synchronized (lock(userId, friendId)) {
+            Map<Long, String> userFriends = friends.get(userId);
+            if (userFriends == null || userFriends.containsKey(friendId)) {
+                return;
+            }
+            Map<Long, String> opposite = friends.get(friendId);
+            String status = opposite != null && opposite.containsKey(userId) ? APPROVED : UNAPPROVED;
+            if (APPROVED.equals(status)) {
+                opposite.put(userId, APPROVED);
+            }
+            userFriends.put(friendId, status);
+            followers.computeIfAbsent(friendId, id -> ConcurrentHashMap.newKeySet()).add(userId);
+            touchFriends(userId);
+        }
     }
 
     @Override
     public void deleteFriend(long userId, long friendId) {
-        friends.getOrDefault(userId, new LinkedHashSet<>()).remove(friendId);
-        friends.getOrDefault(friendId, new LinkedHashSet<>()).remove(userId);
+        synchronized (lock(userId, friendId)) {
+            Map<Long, String> userFriends = friends.get(userId);
+            if (userFriends == null || userFriends.remove(friendId) == null) {
+                return;
+            }
+            Map<Long, String> opposite = friends.get(friendId);
+            if (opposite != null) {
+                opposite.replace(userId, UNAPPROVED);
+            }
+            removeFollower(friendId, userId);
+            touchFriends(userId);
+        }
+    }
+
+    @Override
+    public boolean isFriend(long userId, long friendId) {
+        return friends.getOrDefault(userId, Collections.emptyNavigableMap()).containsKey(friendId);
+    }
+
+    public String getFriendshipStatus(long userId, long friendId) {
+        return friends.getOrDefault(userId, Collections.emptyNavigableMap()).get(friendId);
     }
 
     @Override
     public Set<User> getUserFriends(long userId) {
-        Set<Long> friendIds = friends.getOrDefault(userId, new LinkedHashSet<>());
-        Set<User> userFriends = new LinkedHashSet<>();
-        friendIds.forEach(id -> userFriends.add(getUser(id)));
-        return userFriends;
+        return friends.getOrDefault(userId, Collections.emptyNavigableMap())
+                .keySet()
+                .stream()
+                .map(users::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    @Override
+    public long[] getFriendIds(long userId) {
+        return friends.getOrDefault(userId, Collections.emptyNavigableMap())
+                .keySet()
+                .stream()
+                .mapToLong(Long::longValue)
+                .toArray();
+    }
+
+    @Override
+    public List<User> getUsers(long[] userIds) {
+        return Arrays.stream(userIds)
+                .mapToObj(users::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void forEachFriendship(FriendshipConsumer consumer) {
+        new TreeSet<>(friends.keySet())
+                .forEach(userId -> Arrays.stream(getFriendIds(userId)).forEach(friendId -> consumer.accept(userId, friendId)));
+    }
+
+    @Override
+    public Long getFriendsVersion(long userId) {
+        AtomicLong version = friendsVersions.get(userId);
+        return version == null ? null : version.get();
+    }
+
+    private void claim(User user, long userId) {
+        boolean emailClaimed = user.getEmail() != null && !emails.containsKey(user.getEmail());
+        if (!claim(emails, user.getEmail(), userId)) {
+            throw new DuplicateKeyException("Duplicate user email");
+        }
+        if (!claim(logins, user.getLogin(), userId)) {
+            if (emailClaimed) {
+                release(emails, user.getEmail(), userId);
+            }
+            throw new DuplicateKeyException("Duplicate user login");
+        }
+    }
+
+    private void release(User user, long userId) {
+        release(emails, user.getEmail(), userId);
+        release(logins, user.getLogin(), userId);
+    }
+
+    private static boolean claim(Map<String, Long> index, String value, long userId) {
+        if (value == null) {
+            return true;
+        }
+        Long owner = index.putIfAbsent(value, userId);
+        return owner == null || owner == userId;
+    }
+
+    private static void release(Map<String, Long> index, String value, long userId) {
+        if (value != null) {
+            index.remove(value, userId);
+        }
+    }
+
+    private static boolean taken(Map<String, Long> index, String value) {
+        return value != null && index.containsKey(value);
+    }
+
+    private void touchFriends(long userId) {
+        AtomicLong version = friendsVersions.get(userId);
+        if (version != null) {
+            version.incrementAndGet();
+        }
+    }
+
+    private void touchFollowers(long userId) {
+        Set<Long> userFollowers = followers.get(userId);
+        if (userFollowers != null) {
+            userFollowers.forEach(this::touchFriends);
+        }
+    }
+
+    private void removeFollower(long userId, long followerId) {
+        Set<Long> userFollowers = followers.get(userId);
+        if (userFollowers != null) {
+            userFollowers.remove(followerId);
+        }
     }
 
-    private long createId() {
-        return (long) users.values().size() + 1;
+    private Object lock(long userId, long friendId) {
+        long hash = Math.min(userId, friendId) * 31 + Math.max(userId, friendId);
+        return locks[(int) (hash & (LOCK_STRIPES - 1))];
     }
 }
@@ -1,31 +1,45 @@
 package ru.yandex.practicum.filmorate.storage.user;
 
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import ru.yandex.practicum.filmorate.model.Friendship;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.StorageUtils;
 
 import java.sql.Date;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Consumer;
 
 import static org.apache.logging.log4j.util.Strings.isBlank;
 import static ru.yandex.practicum.filmorate.model.Friendship.APPROVED;
 import static ru.yandex.practicum.filmorate.model.Friendship.UNAPPROVED;
+import static ru.yandex.practicum.filmorate.storage.StorageUtils.BATCH_SIZE;
+import static ru.yandex.practicum.filmorate.storage.StorageUtils.batchInsert;
 import static ru.yandex.practicum.filmorate.storage.StorageUtils.convertFromOptionalList;
+import static ru.yandex.practicum.filmorate.storage.StorageUtils.placeholders;
 
 @Repository
+@Profile("!memory")
 public class UserDbStorage implements UserStorage {
+    private static final int FETCH_SIZE = 500;
 
     private final JdbcTemplate jdbcTemplate;
 
@@ -35,11 +49,32 @@ public class UserDbStorage implements UserStorage {
 
     @Override
     public Collection<User> getAll() {
-        String sqlQuery = "SELECT * FROM USERS " +
+        String sqlQuery = "/* user.getAll */ SELECT * FROM USERS " +
                 "ORDER BY \"user_id\"";
         return convertFromOptionalList(jdbcTemplate.query(sqlQuery, (rs, rowNum) -> extractUser(rs)));
     }
 
+    @Override
+    public List<User> getPage(long afterId, int limit) {
+        String sqlQuery = "/* user.getPage */ SELECT * FROM USERS " +
+                "WHERE \"user_id\" > ? " +
+                "ORDER BY \"user_id\" " +
+                "LIMIT ?";
+        return convertFromOptionalList(jdbcTemplate.query(sqlQuery, (rs, rowNum) -> extractUser(rs), afterId, limit));
+    }
+
+    @Override
+    public void streamAll(Consumer<User> consumer) {
+        String sqlQuery = "/* user.streamAll */ SELECT * FROM USERS " +
+                "ORDER BY \"user_id\"";
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sqlQuery,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(FETCH_SIZE);
+            return ps;
+        }, (RowCallbackHandler) rs -> extractUser(rs).ifPresent(consumer));
+    }
+
     private Optional<User> extractUser(ResultSet rs) throws SQLException {
         long userId = rs.getLong("user_id");
         if (userId < 1) {
@@ -59,7 +94,7 @@ public class UserDbStorage implements UserStorage {
         if (isBlank(user.getName())) {
             user.setName(user.getLogin());
         }
-        final String sqlQuery = "INSERT INTO USERS (\"email\", \"login\", \"name\", \"birthday\") " +
+        final String sqlQuery = "/* user.create */ INSERT INTO USERS (\"email\", \"login\", \"name\", \"birthday\") " +
                 "VALUES (?, ?, ?, ?)";
         KeyHolder keyHolder = new GeneratedKeyHolder();
         jdbcTemplate.update(connection -> {
@@ -75,35 +110,91 @@ public class UserDbStorage implements UserStorage {
     }
 
     @Override
+    @Transactional
+    public long[] createAll(List<User> users) {
+        final String sqlQuery = "/* user.createAll */ INSERT INTO USERS (\"email\", \"login\", \"name\", \"birthday\") " +
+                "VALUES (?, ?, ?, ?)";
+        return batchInsert(jdbcTemplate, sqlQuery, "user_id", users, (ps, user) -> {
+            ps.setString(1, user.getEmail());
+            ps.setString(2, user.getLogin());
+            ps.setString(3, isBlank(user.getName()) ? user.getLogin() : user.getName());
+            ps.setDate(4, Optional.ofNullable(user.getBirthday()).map(Date::valueOf).orElse(null));
+        });
+    }
+
+    @Override
+    public Set<String> getExistingEmails(Collection<String> emails) {
+        return getExistingValues("user.getExistingEmails", "email", emails);
+    }
+
+    @Override
+    public Set<String> getExistingLogins(Collection<String> logins) {
+        return getExistingValues("user.getExistingLogins", "login", logins);
+    }
+
+    private Set<String> getExistingValues(String name, String column, Collection<String> values) {
+        Set<String> existing = new HashSet<>();
+        List<String> distinct = new ArrayList<>(new LinkedHashSet<>(values));
+        for (int from = 0; from < distinct.size(); from += BATCH_SIZE) {
+            List<String> batch = distinct.subList(from, Math.min(from + BATCH_SIZE, distinct.size()));
+            String sqlQuery = "/* " + name + " */ SELECT DISTINCT \"" + column + "\" FROM USERS " +
+                    "WHERE \"" + column + "\" IN (" + placeholders(batch.size()) + ")";
+            existing.addAll(jdbcTemplate.queryForList(sqlQuery, String.class, batch.toArray()));
+        }
+        return existing;
+    }
+
+    @Override
+    @Transactional
     public User update(User user) {
         if (isBlank(user.getName())) {
             user.setName(user.getLogin());
         }
-        String sqlQuery = "UPDATE USERS " +
-                "SET \"email\" = ?, \"login\" = ?, \"name\" = ?, \"birthday\" = ? " +
+        String sqlQuery = "/* user.update */ UPDATE USERS " +
+                "SET \"email\" = ?, \"login\" = ?, \"name\" = ?, \"birthday\" = ?, \"version\" = \"version\" + 1 " +
                 "WHERE \"user_id\" = ?";
         jdbcTemplate.update(sqlQuery, user.getEmail(), user.getLogin(), user.getName(), user.getBirthday(), user.getId());
+        touchFollowers(user.getId());
         return getUser(user.getId());
     }
 
+    private void touchFollowers(long userId) {
+        String sqlQuery = "/* user.touchFollowers */ UPDATE USERS SET \"friends_version\" = \"friends_version\" + 1 " +
+                "WHERE \"user_id\" IN (SELECT \"user_id\" FROM FRIENDSHIPS WHERE \"friend_id\" = ?)";
+        jdbcTemplate.update(sqlQuery, userId);
+    }
+
+    private void touchFriends(long userId) {
+        String sqlQuery = "/* user.touchFriends */ UPDATE USERS SET \"friends_version\" = \"friends_version\" + 1 " +
+                "WHERE \"user_id\" = ?";
+        jdbcTemplate.update(sqlQuery, userId);
+    }
+
     @Override
+    @Transactional
     public void delete(User user) {
-        String sqlQuery = "DELETE FROM USERS WHERE \"user_id\" = ?";
+        String sqlQuery = "/* user.decrementLikesCounts */ UPDATE FILMS SET \"likes_count\" = \"likes_count\" - 1 " +
+                "WHERE \"film_id\" IN (SELECT \"film_id\" FROM LIKES WHERE \"user_id\" = ?)";
         jdbcTemplate.update(sqlQuery, user.getId());
 
-        sqlQuery = "DELETE FROM USER_FRIENDS WHERE \"user_id\" = ?";
+        touchFollowers(user.getId());
+
+        sqlQuery = "/* user.delete */ DELETE FROM USERS WHERE \"user_id\" = ?";
         jdbcTemplate.update(sqlQuery, user.getId());
 
-        sqlQuery = "DELETE FROM FRIENDSHIPS WHERE \"friend_id\" = ?";
+        sqlQuery = "/* user.deleteUserFriends */ DELETE FROM USER_FRIENDS WHERE \"user_id\" = ?";
         jdbcTemplate.update(sqlQuery, user.getId());
 
-        sqlQuery = "DELETE FROM LIKES WHERE \"user_id\" = ?";
+        sqlQuery = "/* user.deleteFriendships */ DELETE FROM FRIENDSHIPS WHERE \"friend_id\" = ?";
+        jdbcTemplate.update(sqlQuery, user.getId());
+
+        sqlQuery = "/* user.deleteLikes */ DELETE FROM LIKES WHERE \"user_id\" = ?";
         jdbcTemplate.update(sqlQuery, user.getId());
     }
 
     @Override
     public User getUser(long userId) {
-        String sqlQuery = "SELECT * FROM USERS WHERE \"user_id\" = ?";
+        String sqlQuery = "/* user.getUser */ SELECT * FROM USERS WHERE \"user_id\" = ?";
         List<User> users = convertFromOptionalList(jdbcTemplate.query(sqlQuery, (rs, rowNum) -> extractUser(rs), userId));
         if (users.isEmpty()) {
             return null;
@@ -112,6 +203,13 @@ public class UserDbStorage implements UserStorage {
     }
 
     @Override
+    public boolean exists(long userId) {
+        String sqlQuery = "/* user.exists */ SELECT EXISTS (SELECT 1 FROM USERS WHERE \"user_id\" = ?)";
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(sqlQuery, Boolean.class, userId));
+    }
+
+    @Override
+    @Transactional
     public void addFriend(long userId, long friendId) {
         Optional<Friendship> directFriendship = getFriendship(userId, friendId);
         if (directFriendship.isPresent()) {
@@ -120,13 +218,26 @@ public class UserDbStorage implements UserStorage {
         Optional<Friendship> oppositeFriendship = getFriendship(friendId, userId);
         String status = oppositeFriendship.isPresent() ? APPROVED : UNAPPROVED;
         oppositeFriendship.ifPresent(friendship -> updateFriendshipStatus(friendship, status));
-        Friendship friendship = createFriendship(userId, friendId, status);
-        String sqlQuery = "INSERT INTO USER_FRIENDS (\"user_id\", \"friendship_id\") VALUES (?, ?)";
+        Friendship friendship;
+        try {
+            friendship = createFriendship(userId, friendId, status);
+        } catch (DuplicateKeyException e) {
+            return;
+        }
+        String sqlQuery = "/* user.addUserFriend */ INSERT INTO USER_FRIENDS (\"user_id\", \"friendship_id\") VALUES (?, ?)";
         jdbcTemplate.update(sqlQuery, userId, friendship.getId());
+        touchFriends(userId);
+    }
+
+    @Override
+    public boolean isFriend(long userId, long friendId) {
+        String sqlQuery = "/* user.isFriend */ SELECT EXISTS (SELECT 1 FROM FRIENDSHIPS " +
+                "WHERE \"user_id\" = ? AND \"friend_id\" = ?)";
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(sqlQuery, Boolean.class, userId, friendId));
     }
 
     private Friendship createFriendship(long userId, long friendId, String status) {
-        final String sqlQuery = "INSERT INTO FRIENDSHIPS (\"user_id\", \"friend_id\", \"status\") VALUES (?, ?, ?)";
+        final String sqlQuery = "/* user.createFriendship */ INSERT INTO FRIENDSHIPS (\"user_id\", \"friend_id\", \"status\") VALUES (?, ?, ?)";
         KeyHolder keyHolder = new GeneratedKeyHolder();
         jdbcTemplate.update(connection -> {
             PreparedStatement ps = connection.prepareStatement(sqlQuery, new String[]{"friendship_id"});
@@ -144,7 +255,7 @@ public class UserDbStorage implements UserStorage {
     }
 
     private Optional<Friendship> getFriendship(long userId, long friendId) {
-        String sqlQuery = "SELECT * FROM FRIENDSHIPS " +
+        String sqlQuery = "/* user.getFriendship */ SELECT * FROM FRIENDSHIPS " +
                 "WHERE \"user_id\" = ? AND \"friend_id\" = ?";
         List<Friendship> friendships = convertFromOptionalList(jdbcTemplate.query(sqlQuery, (rs, rowNum) -> extractFriendship(rs), userId, friendId));
         if (friendships.isEmpty()) {
@@ -167,11 +278,12 @@ public class UserDbStorage implements UserStorage {
     }
 
     private void updateFriendshipStatus(Friendship friendship, String status) {
-        String sqlQuery = "UPDATE FRIENDSHIPS SET \"status\" = ? WHERE \"friendship_id\" = ?";
+        String sqlQuery = "/* user.updateFriendshipStatus */ UPDATE FRIENDSHIPS SET \"status\" = ? WHERE \"friendship_id\" = ?";
         jdbcTemplate.update(sqlQuery, status, friendship.getId());
     }
 
     @Override
+    @Transactional
     public void deleteFriend(long userId, long friendId) {
         Optional<Friendship> directFriendship = getFriendship(userId, friendId);
         if (directFriendship.isEmpty()) {
@@ -179,16 +291,17 @@ public class UserDbStorage implements UserStorage {
         }
         Optional<Friendship> oppositeFriendship = getFriendship(friendId, userId);
         oppositeFriendship.ifPresent(friendship -> updateFriendshipStatus(friendship, UNAPPROVED));
-        String sqlQuery = "DELETE FROM FRIENDSHIPS WHERE \"friendship_id\" = ? ";
+        String sqlQuery = "/* user.deleteFriendship */ DELETE FROM FRIENDSHIPS WHERE \"friendship_id\" = ? ";
         jdbcTemplate.update(sqlQuery, directFriendship.get().getId());
 
-        sqlQuery = "DELETE FROM USER_FRIENDS WHERE \"friendship_id\" = ?";
+        sqlQuery = "/* user.deleteUserFriend */ DELETE FROM USER_FRIENDS WHERE \"friendship_id\" = ?";
         jdbcTemplate.update(sqlQuery, directFriendship.get().getId());
+        touchFriends(userId);
     }
 
     @Override
     public Set<User> getUserFriends(long userId) {
-        String sqlQuery = "SELECT U2.* FROM USERS U " +
+        String sqlQuery = "/* user.getUserFriends */ SELECT U2.* FROM USERS U " +
                 "LEFT JOIN USER_FRIENDS UF on U.\"user_id\" = UF.\"user_id\" " +
                 "LEFT JOIN FRIENDSHIPS F on UF.\"friendship_id\" = F.\"friendship_id\" " +
                 "LEFT JOIN USERS U2 on U2.\"user_id\" = F.\"friend_id\" " +
@@ -200,4 +313,41 @@ public class UserDbStorage implements UserStorage {
         }
         return new LinkedHashSet<>(users);
     }
+
+    @Override
+    public long[] getFriendIds(long userId) {
+        String sqlQuery = "/* user.getFriendIds */ SELECT \"friend_id\" FROM FRIENDSHIPS " +
+                "WHERE \"user_id\" = ? " +
+                "ORDER BY \"friend_id\"";
+        return jdbcTemplate.query(sqlQuery, StorageUtils::extractLongs, userId);
+    }
+
+    @Override
+    public List<User> getUsers(long[] userIds) {
+        List<User> users = new ArrayList<>(userIds.length);
+        for (int from = 0; from < userIds.length; from += BATCH_SIZE) {
+            Object[] batch = Arrays.stream(userIds, from, Math.min(from + BATCH_SIZE, userIds.length))
+                    .boxed()
+                    .toArray();
+            String sqlQuery = "/* user.getUsers */ SELECT * FROM USERS " +
+                    "WHERE \"user_id\" IN (" + placeholders(batch.length) + ") " +
+                    "ORDER BY \"user_id\"";
+            users.addAll(convertFromOptionalList(jdbcTemplate.query(sqlQuery, (rs, rowNum) -> extractUser(rs), batch)));
+        }
+        return users;
+    }
+
+    @Override
+    public void forEachFriendship(FriendshipConsumer consumer) {
+        String sqlQuery = "/* user.forEachFriendship */ SELECT \"user_id\", \"friend_id\" FROM FRIENDSHIPS " +
+                "ORDER BY \"user_id\", \"friend_id\"";
+        jdbcTemplate.query(sqlQuery, (RowCallbackHandler) rs -> consumer.accept(rs.getLong("user_id"), rs.getLong("friend_id")));
+    }
+
+    @Override
+    public Long getFriendsVersion(long userId) {
+        String sqlQuery = "/* user.getFriendsVersion */ SELECT \"friends_version\" FROM USERS WHERE \"user_id\" = ?";
+        List<Long> versions = jdbcTemplate.queryForList(sqlQuery, Long.class, userId);
+        return versions.isEmpty() ? null : versions.get(0);
+    }
 }
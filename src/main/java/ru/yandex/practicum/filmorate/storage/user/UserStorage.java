@@ -3,22 +3,51 @@ package ru.yandex.practicum.filmorate.storage.user;
 import ru.yandex.practicum.filmorate.model.User;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Set;
+import java.util.function.Consumer;
 
 public interface UserStorage {
     Collection<User> getAll();
 
+    List<User> getPage(long afterId, int limit);
+
+    void streamAll(Consumer<User> consumer);
+
     User create(User user);
 
+    long[] createAll(List<User> users);
+
+    Set<String> getExistingEmails(Collection<String> emails);
+
+    Set<String> getExistingLogins(Collection<String> logins);
+
     User update(User user);
 
     void delete(User user);
 
     User getUser(long userId);
 
+    boolean exists(long userId);
+
     void addFriend(long userId, long friendId);
 
     void deleteFriend(long userId, long friendId);
 
+    boolean isFriend(long userId, long friendId);
+
     Set<User> getUserFriends(long userId);
+
+    long[] getFriendIds(long userId);
+
+    List<User> getUsers(long[] userIds);
+
+    void forEachFriendship(FriendshipConsumer consumer);
+
+    Long getFriendsVersion(long userId);
+
+    @FunctionalInterface
+    interface FriendshipConsumer {
+        void accept(long userId, long friendId);
+    }
 }
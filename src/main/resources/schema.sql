@@ -1,3 +1,9 @@
+CREATE TABLE IF NOT EXISTS "SCHEMA_MIGRATIONS"
+(
+    "name" varchar(100) NOT NULL,
+    CONSTRAINT "pk_SCHEMA_MIGRATIONS" PRIMARY KEY ("name")
+);
+
 CREATE TABLE IF NOT EXISTS "FILMS"
 (
     "film_id"      long GENERATED BY DEFAULT AS IDENTITY,
@@ -6,6 +12,8 @@ CREATE TABLE IF NOT EXISTS "FILMS"
     "release_date" date,
     "duration"     int,
     "rating_id"    long,
+    "likes_count"  int NOT NULL DEFAULT 0,
+    "version"      long NOT NULL DEFAULT 0,
     CONSTRAINT "pk_FILMS" PRIMARY KEY ("film_id")
 );
 
@@ -38,6 +46,8 @@ CREATE TABLE IF NOT EXISTS "USERS"
     "login"    varchar(100) NOT NULL,
     "name"     varchar(100) NOT NULL,
     "birthday" date,
+    "version"         long NOT NULL DEFAULT 0,
+    "friends_version" long NOT NULL DEFAULT 0,
     CONSTRAINT "pk_USERS" PRIMARY KEY ("user_id")
 );
 
@@ -66,6 +76,100 @@ CREATE TABLE IF NOT EXISTS "LIKES"
     CONSTRAINT "pk_LIKES" PRIMARY KEY ("like_id")
 );
 
+DELETE
+FROM "LIKES" L
+WHERE EXISTS (SELECT 1
+              FROM "LIKES" L2
+              WHERE L2."film_id" = L."film_id"
+                AND L2."user_id" = L."user_id"
+                AND L2."like_id" < L."like_id");
+
+DELETE
+FROM "FILM_GENRE" FG
+WHERE EXISTS (SELECT 1
+              FROM "FILM_GENRE" FG2
+              WHERE FG2."film_id" = FG."film_id"
+                AND FG2."genre_id" = FG."genre_id"
+                AND FG2."id" < FG."id");
+
+UPDATE "USER_FRIENDS" UF
+SET "friendship_id" = (SELECT MIN(F2."friendship_id")
+                       FROM "FRIENDSHIPS" F
+                                JOIN "FRIENDSHIPS" F2
+                                     ON F2."user_id" = F."user_id" AND F2."friend_id" = F."friend_id"
+                       WHERE F."friendship_id" = UF."friendship_id")
+WHERE EXISTS (SELECT 1
+              FROM "FRIENDSHIPS" F
+                       JOIN "FRIENDSHIPS" F2
+                            ON F2."user_id" = F."user_id" AND F2."friend_id" = F."friend_id"
+              WHERE F."friendship_id" = UF."friendship_id"
+                AND F2."friendship_id" < F."friendship_id");
+
+DELETE
+FROM "FRIENDSHIPS" F
+WHERE EXISTS (SELECT 1
+              FROM "FRIENDSHIPS" F2
+              WHERE F2."user_id" = F."user_id"
+                AND F2."friend_id" = F."friend_id"
+                AND F2."friendship_id" < F."friendship_id");
+
+DELETE
+FROM "USER_FRIENDS" UF
+WHERE EXISTS (SELECT 1
+              FROM "USER_FRIENDS" UF2
+              WHERE UF2."user_id" = UF."user_id"
+                AND UF2."friendship_id" = UF."friendship_id"
+                AND UF2."id" < UF."id");
+
+SELECT CAST('Users with duplicate emails or logins must be merged or renamed before upgrading, user_id: ' ||
+            LISTAGG(U."user_id", ', ') WITHIN GROUP (ORDER BY U."user_id") AS INT)
+FROM "USERS" U
+WHERE NOT EXISTS (SELECT 1 FROM "SCHEMA_MIGRATIONS" WHERE "name" = 'USERS.unique_email_login')
+  AND (EXISTS (SELECT 1
+               FROM "USERS" U2
+               WHERE U2."email" = U."email"
+                 AND U2."user_id" <> U."user_id")
+    OR EXISTS (SELECT 1
+               FROM "USERS" U2
+               WHERE U2."login" = U."login"
+                 AND U2."user_id" <> U."user_id"))
+HAVING COUNT(*) > 0;
+
+DROP INDEX IF EXISTS "ix_USERS_email";
+
+DROP INDEX IF EXISTS "ix_USERS_login";
+
+ALTER TABLE "LIKES"
+    ADD CONSTRAINT IF NOT EXISTS "uq_LIKES_film_id_user_id" UNIQUE ("film_id", "user_id");
+
+ALTER TABLE "FRIENDSHIPS"
+    ADD CONSTRAINT IF NOT EXISTS "uq_FRIENDSHIPS_user_id_friend_id" UNIQUE ("user_id", "friend_id");
+
+ALTER TABLE "FILM_GENRE"
+    ADD CONSTRAINT IF NOT EXISTS "uq_FILM_GENRE_film_id_genre_id" UNIQUE ("film_id", "genre_id");
+
+ALTER TABLE "USER_FRIENDS"
+    ADD CONSTRAINT IF NOT EXISTS "uq_USER_FRIENDS_user_id_friendship_id" UNIQUE ("user_id", "friendship_id");
+
+ALTER TABLE "USERS"
+    ADD CONSTRAINT IF NOT EXISTS "uq_USERS_email" UNIQUE ("email");
+
+ALTER TABLE "USERS"
+    ADD CONSTRAINT IF NOT EXISTS "uq_USERS_login" UNIQUE ("login");
+
+MERGE INTO "SCHEMA_MIGRATIONS" ("name") KEY ("name")
+VALUES ('USERS.unique_email_login');
+
+CREATE INDEX IF NOT EXISTS "ix_FILMS_rating_id" ON "FILMS" ("rating_id");
+
+CREATE INDEX IF NOT EXISTS "ix_FILM_GENRE_genre_id" ON "FILM_GENRE" ("genre_id");
+
+CREATE INDEX IF NOT EXISTS "ix_FRIENDSHIPS_friend_id" ON "FRIENDSHIPS" ("friend_id");
+
+CREATE INDEX IF NOT EXISTS "ix_USER_FRIENDS_friendship_id" ON "USER_FRIENDS" ("friendship_id");
+
+CREATE INDEX IF NOT EXISTS "ix_LIKES_user_id" ON "LIKES" ("user_id");
+
 ALTER TABLE "FILMS"
     ADD CONSTRAINT IF NOT EXISTS "fk_FILMS_rating_id" FOREIGN KEY ("rating_id") REFERENCES "MPA_RATINGS" ("rating_id") ON DELETE CASCADE;
 
@@ -93,3 +197,23 @@ ALTER TABLE "LIKES"
 ALTER TABLE "LIKES"
     ADD CONSTRAINT IF NOT EXISTS "fk_LIKES_user_id" FOREIGN KEY ("user_id") REFERENCES "USERS" ("user_id") ON DELETE CASCADE;
 
+ALTER TABLE "FILMS"
+    ADD COLUMN IF NOT EXISTS "likes_count" int NOT NULL DEFAULT 0;
+
+UPDATE "FILMS" F
+SET "likes_count" = (SELECT COUNT(*) FROM "LIKES" L WHERE L."film_id" = F."film_id")
+WHERE NOT EXISTS (SELECT 1 FROM "SCHEMA_MIGRATIONS" WHERE "name" = 'FILMS.likes_count');
+
+MERGE INTO "SCHEMA_MIGRATIONS" ("name") KEY ("name")
+VALUES ('FILMS.likes_count');
+
+CREATE INDEX IF NOT EXISTS "ix_FILMS_likes_count" ON "FILMS" ("likes_count" DESC, "film_id");
+
+ALTER TABLE "FILMS"
+    ADD COLUMN IF NOT EXISTS "version" long NOT NULL DEFAULT 0;
+
+ALTER TABLE "USERS"
+    ADD COLUMN IF NOT EXISTS "version" long NOT NULL DEFAULT 0;
+
+ALTER TABLE "USERS"
+    ADD COLUMN IF NOT EXISTS "friends_version" long NOT NULL DEFAULT 0;
@@ -0,0 +1,66 @@
+package ru.yandex.practicum.filmorate.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class SamplingTurboFilterTest {
+    private LoggerContext context;
+    private ListAppender<ILoggingEvent> events;
+
+    @BeforeEach
+    void setUp() {
+        context = new LoggerContext();
+        SamplingTurboFilter filter = new SamplingTurboFilter();
+        filter.setContext(context);
+        filter.setCategory("ru.yandex.practicum.filmorate.service");
+        filter.setRate(10);
+        filter.start();
+        context.addTurboFilter(filter);
+        events = new ListAppender<>();
+        events.setContext(context);
+        events.start();
+        Logger root = context.getLogger(Logger.ROOT_LOGGER_NAME);
+        root.setLevel(Level.DEBUG);
+        root.addAppender(events);
+    }
+
+    @Test
+    void testSamplesInfoAndBelowInCategory() {
+        Logger log = context.getLogger("ru.yandex.practicum.filmorate.service.impl.FilmServiceImpl");
+        for (int i = 0; i < 100; i++) {
+            log.info("Adding like for filmId={} and userId={}", i, i);
+            log.debug("Film validation started: {}", i);
+        }
+        assertEquals(20, events.list.size());
+    }
+
+    @Test
+    void testKeepsWarningsAndOtherCategories() {
+        Logger log = context.getLogger("ru.yandex.practicum.filmorate.service.impl.UserServiceImpl");
+        Logger other = context.getLogger("ru.yandex.practicum.filmorate.storage.jdbc.QueryMetrics");
+        for (int i = 0; i < 100; i++) {
+            log.warn("Slow friend lookup {}", i);
+            log.error("Validation error: {}", i);
+            other.info("Query {}", i);
+        }
+        assertEquals(300, events.list.size());
+    }
+
+    @Test
+    void testLevelChecksDoNotConsumeSamples() {
+        Logger log = context.getLogger("ru.yandex.practicum.filmorate.service.impl.FilmServiceImpl");
+        for (int i = 0; i < 100; i++) {
+            if (log.isInfoEnabled()) {
+                log.info("Getting top {} films", i);
+            }
+        }
+        assertEquals(10, events.list.size());
+    }
+}
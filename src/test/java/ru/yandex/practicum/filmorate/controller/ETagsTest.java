@@ -0,0 +1,51 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class ETagsTest {
+    @Test
+    void testNotModifiedSkipsBody() {
+        String eTag = ETags.of("film", 1, 3);
+        assertEquals("\"film-1-3\"", eTag);
+        AtomicInteger loads = new AtomicInteger();
+
+        ResponseEntity<String> response = ETags.toResponse(request("W/\"film-1-2\", \"film-1-3\""), eTag, () -> {
+            loads.incrementAndGet();
+            return "film";
+        });
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertEquals(eTag, response.getHeaders().getETag());
+        assertNull(response.getBody());
+        assertEquals(0, loads.get());
+    }
+
+    @Test
+    void testChangedVersionReturnsBody() {
+        String eTag = ETags.of("film", 1, 4);
+        ResponseEntity<String> response = ETags.toResponse(request("\"film-1-3\""), eTag, () -> "film");
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(eTag, response.getHeaders().getETag());
+        assertEquals("film", response.getBody());
+
+        response = ETags.toResponse(request(null), eTag, () -> "film");
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+    }
+
+    private ServletWebRequest request(String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/films/1");
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return new ServletWebRequest(request);
+    }
+}
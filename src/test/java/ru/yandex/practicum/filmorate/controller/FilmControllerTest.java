@@ -0,0 +1,53 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "filmorate.popular-snapshot.enabled=true")
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase
+public class FilmControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void testCreateResolvesReferenceData() throws Exception {
+        mockMvc.perform(post("/films")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"film\",\"description\":\"film\",\"releaseDate\":\"2000-01-01\"," +
+                                "\"duration\":100,\"mpa\":{\"id\":4},\"genres\":[{\"id\":2},{\"id\":1}]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.mpa.id").value(4))
+                .andExpect(jsonPath("$.mpa.name").value("R"))
+                .andExpect(jsonPath("$.genres[0].id").value(1))
+                .andExpect(jsonPath("$.genres[1].id").value(2));
+    }
+
+    @Test
+    void testPopularServesSnapshot() throws Exception {
+        MvcResult result = mockMvc.perform(get("/films/popular").param("count", "5"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$").isArray())
+                .andReturn();
+        String eTag = result.getResponse().getHeader(HttpHeaders.ETAG);
+        assertEquals(result.getResponse().getContentAsByteArray().length, result.getResponse().getContentLength());
+
+        mockMvc.perform(get("/films/popular").param("count", "5").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+    }
+}
@@ -0,0 +1,86 @@
+package ru.yandex.practicum.filmorate.service.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FilmLeaderboardTest {
+    private InMemoryFilmStorage filmStorage;
+    private FilmLeaderboard leaderboard;
+
+    @BeforeEach
+    void setUp() {
+        filmStorage = new InMemoryFilmStorage();
+        for (int i = 0; i < 3; i++) {
+            filmStorage.create(Film.builder().name("film" + i).duration(1).build());
+        }
+        filmStorage.addLike(2, 1);
+        filmStorage.addLike(2, 2);
+        filmStorage.addLike(3, 1);
+        leaderboard = new FilmLeaderboard(filmStorage);
+        leaderboard.load();
+    }
+
+    @Test
+    void testLoad() {
+        assertEquals(List.of(2L, 3L, 1L), leaderboard.getTop(10));
+        assertEquals(List.of(2L), leaderboard.getTop(1));
+    }
+
+    @Test
+    void testRefresh() {
+        filmStorage.addLike(1, 1);
+        filmStorage.addLike(1, 2);
+        filmStorage.addLike(1, 3);
+        leaderboard.refresh(1);
+        filmStorage.deleteLike(2, 1);
+        leaderboard.refresh(2);
+        assertEquals(List.of(1L, 2L, 3L), leaderboard.getTop(10));
+
+        filmStorage.delete(filmStorage.getFilm(1));
+        leaderboard.refresh(1);
+        assertEquals(List.of(2L, 3L), leaderboard.getTop(10));
+    }
+
+    @Test
+    void testRegister() {
+        leaderboard.register(4);
+        leaderboard.register(3);
+        assertEquals(List.of(2L, 3L, 1L, 4L), leaderboard.getTop(10));
+    }
+
+    @Test
+    void testConcurrentUpdates() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 1000; i++) {
+            long userId = i;
+            executor.execute(() -> {
+                filmStorage.addLike(1, userId);
+                leaderboard.refresh(1);
+            });
+            if (i % 2 == 0) {
+                executor.execute(() -> {
+                    filmStorage.addLike(3, userId);
+                    leaderboard.refresh(3);
+                    if (userId % 4 == 0) {
+                        filmStorage.deleteLike(3, userId);
+                        leaderboard.refresh(3);
+                    }
+                });
+            }
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(List.of(1L, 3L, 2L), leaderboard.getTop(10));
+        assertEquals(filmStorage.getTopFilmIds(10), leaderboard.getTop(10));
+    }
+}
@@ -0,0 +1,116 @@
+package ru.yandex.practicum.filmorate.service.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FriendGraphTest {
+    private InMemoryUserStorage userStorage;
+    private FriendGraph friendGraph;
+
+    @BeforeEach
+    void setUp() {
+        userStorage = new InMemoryUserStorage();
+        for (int i = 0; i < 5; i++) {
+            userStorage.create(User.builder().email("user" + i + "@a.ru").login("user" + i).build());
+        }
+        userStorage.addFriend(1, 3);
+        userStorage.addFriend(3, 1);
+        userStorage.addFriend(1, 4);
+        userStorage.addFriend(4, 1);
+        userStorage.addFriend(2, 4);
+        userStorage.addFriend(4, 2);
+        friendGraph = new FriendGraph(userStorage, 3);
+        friendGraph.load();
+    }
+
+    @Test
+    void testLoad() {
+        assertArrayEquals(new long[]{3, 4}, friendGraph.getFriendIds(1));
+        assertArrayEquals(new long[]{1, 2}, friendGraph.getFriendIds(4));
+        assertArrayEquals(new long[0], friendGraph.getFriendIds(42));
+        assertEquals(2, friendGraph.getFriendIds(1).length);
+    }
+
+    @Test
+    void testOverlay() {
+        friendGraph.addFriend(1, 2);
+        friendGraph.addFriend(1, 5);
+        friendGraph.deleteFriend(1, 3);
+        assertArrayEquals(new long[]{2, 4, 5}, friendGraph.getFriendIds(1));
+        assertEquals(3, friendGraph.getFriendIds(1).length);
+        assertArrayEquals(new long[]{4}, friendGraph.getCommonFriendIds(1, 2));
+    }
+
+    @Test
+    void testRepeatedChanges() {
+        friendGraph.deleteFriend(1, 3);
+        friendGraph.addFriend(1, 3);
+        friendGraph.addFriend(1, 3);
+        friendGraph.deleteFriend(1, 5);
+        assertArrayEquals(new long[]{3, 4}, friendGraph.getFriendIds(1));
+        assertEquals(2, friendGraph.getFriendIds(1).length);
+    }
+
+    @Test
+    void testCompaction() {
+        friendGraph.addFriend(5, 1);
+        friendGraph.addFriend(3, 2);
+        friendGraph.deleteFriend(1, 4);
+        friendGraph.addFriend(5, 2);
+        friendGraph.compact();
+        friendGraph.deleteFriend(3, 2);
+        friendGraph.addFriend(3, 2);
+        assertArrayEquals(new long[]{3}, friendGraph.getFriendIds(1));
+        assertArrayEquals(new long[]{1, 2}, friendGraph.getFriendIds(5));
+        assertArrayEquals(new long[]{1, 2}, friendGraph.getFriendIds(3));
+        assertArrayEquals(new long[]{1, 2}, friendGraph.getCommonFriendIds(3, 5));
+        assertEquals(1, friendGraph.getFriendIds(1).length);
+    }
+
+    @Test
+    void testRefreshFollowsStorage() {
+        userStorage.addFriend(1, 2);
+        friendGraph.refresh(1, 2);
+        userStorage.deleteFriend(1, 3);
+        friendGraph.refresh(1, 3);
+        friendGraph.refresh(1, 5);
+        assertArrayEquals(new long[]{2, 4}, friendGraph.getFriendIds(1));
+        assertEquals(2, friendGraph.getFriendIds(1).length);
+    }
+
+    @Test
+    void testWritesDuringBackgroundCompaction() throws InterruptedException {
+        FriendGraph graph = new FriendGraph(new InMemoryUserStorage(), 3);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (long userId = 1; userId <= 8; userId++) {
+            long user = userId;
+            executor.execute(() -> {
+                for (long friendId = 1; friendId <= 500; friendId++) {
+                    graph.addFriend(user, friendId);
+                    if (friendId % 2 == 1) {
+                        graph.deleteFriend(user, friendId);
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        graph.compact();
+        long[] expected = LongStream.rangeClosed(1, 500).filter(friendId -> friendId % 2 == 0).toArray();
+        for (long userId = 1; userId <= 8; userId++) {
+            assertArrayEquals(expected, graph.getFriendIds(userId));
+            assertEquals(expected.length, graph.getFriendIds(userId).length);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package ru.yandex.practicum.filmorate.service.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class LikeWriteBufferTest {
+    private InMemoryFilmStorage filmStorage;
+    private FilmLeaderboard leaderboard;
+    private LikeWriteBuffer buffer;
+
+    @BeforeEach
+    void setUp() {
+        filmStorage = new InMemoryFilmStorage();
+        for (int i = 0; i < 3; i++) {
+            filmStorage.create(Film.builder().name("film" + i).duration(1).build());
+        }
+        filmStorage.addLike(3, 1);
+        leaderboard = new FilmLeaderboard(filmStorage);
+        leaderboard.load();
+        buffer = new LikeWriteBuffer(filmStorage, Optional.of(leaderboard), 10, 100, 1000);
+    }
+
+    @Test
+    void testCoalesceAndFlush() {
+        buffer.addLike(1, 1);
+        buffer.addLike(1, 2);
+        buffer.deleteLike(1, 2);
+        buffer.deleteLike(3, 1);
+        buffer.addLike(2, 1);
+
+        assertEquals(4, buffer.getPending());
+        assertEquals(Set.of(), filmStorage.getLikes().get(1L));
+
+        buffer.flush();
+
+        assertEquals(0, buffer.getPending());
+        assertEquals(Set.of(1L), filmStorage.getLikes().get(1L));
+        assertEquals(Set.of(), filmStorage.getLikes().get(3L));
+        assertEquals(1, buffer.getCoalesced());
+        assertEquals(3, buffer.getFlushed());
+        assertEquals(List.of(1L, 2L, 3L), leaderboard.getTop(10));
+
+        buffer.addLike(1, 1);
+        buffer.deleteLike(3, 1);
+        buffer.flush();
+        assertEquals(3, buffer.getFlushed());
+    }
+
+    @Test
+    void testFlushesWhenFull() {
+        buffer = new LikeWriteBuffer(filmStorage, Optional.of(leaderboard), 3, 100, 1000);
+        buffer.addLike(1, 1);
+        buffer.addLike(1, 2);
+        buffer.addLike(1, 3);
+        buffer.addLike(2, 1);
+
+        assertEquals(1, buffer.getPending());
+        assertEquals(Set.of(1L, 2L, 3L), filmStorage.getLikes().get(1L));
+    }
+}
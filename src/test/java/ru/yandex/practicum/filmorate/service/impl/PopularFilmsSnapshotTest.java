@@ -0,0 +1,120 @@
+package ru.yandex.practicum.filmorate.service.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class PopularFilmsSnapshotTest {
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final AtomicInteger topQueries = new AtomicInteger();
+    private final AtomicBoolean invalidateOnLoad = new AtomicBoolean();
+    private InMemoryFilmStorage filmStorage;
+    private PopularFilmsSnapshot snapshot;
+
+    @BeforeEach
+    void setUp() {
+        filmStorage = new InMemoryFilmStorage() {
+            @Override
+            public List<Film> getTopFilms(int count) {
+                topQueries.incrementAndGet();
+                if (invalidateOnLoad.getAndSet(false)) {
+                    snapshot.invalidate();
+                }
+                return super.getTopFilms(count);
+            }
+        };
+        for (int i = 0; i < 3; i++) {
+            filmStorage.create(Film.builder().name("film" + i).duration(1).build());
+        }
+        filmStorage.addLike(2, 1);
+        snapshot = new PopularFilmsSnapshot(filmStorage, Optional.empty(), objectMapper, 1000, 100, 10);
+    }
+
+    @Test
+    void testSnapshotIsReusedUntilRefresh() throws IOException {
+        PopularFilmsSnapshot.Snapshot first = snapshot.get(2);
+        assertEquals(List.of(2L, 1L), ids(first));
+        assertSame(first, snapshot.get(2));
+
+        filmStorage.addLike(3, 1);
+        filmStorage.addLike(3, 2);
+        snapshot.recordChange();
+        assertSame(first, snapshot.get(2));
+
+        snapshot.refresh();
+        PopularFilmsSnapshot.Snapshot refreshed = snapshot.get(2);
+        assertNotSame(first, refreshed);
+        assertNotEquals(first.getHash(), refreshed.getHash());
+        assertEquals(List.of(3L, 2L), ids(refreshed));
+    }
+
+    @Test
+    void testInvalidateAndCountLimits() throws IOException {
+        PopularFilmsSnapshot.Snapshot first = snapshot.get(3);
+        snapshot.invalidate();
+        assertNotSame(first, snapshot.get(3));
+        assertEquals(List.of(2L, 1L, 3L), ids(snapshot.get(3)));
+        assertNull(snapshot.get(0));
+        assertNull(snapshot.get(11));
+    }
+
+    @Test
+    void testRefreshLoadsTopOnceAndSkipsWithoutChanges() throws IOException {
+        PopularFilmsSnapshot.Snapshot first = snapshot.get(1);
+        snapshot.get(3);
+        assertEquals(2, topQueries.get());
+
+        snapshot.refresh();
+        assertEquals(2, topQueries.get());
+        assertSame(first, snapshot.get(1));
+
+        filmStorage.addLike(3, 1);
+        filmStorage.addLike(3, 2);
+        snapshot.recordChange();
+        snapshot.refresh();
+        assertEquals(3, topQueries.get());
+        assertEquals(List.of(3L), ids(snapshot.get(1)));
+        assertEquals(List.of(3L, 2L, 1L), ids(snapshot.get(3)));
+    }
+
+    @Test
+    void testStaleSnapshotIsNotPublishedAfterInvalidate() {
+        invalidateOnLoad.set(true);
+        PopularFilmsSnapshot.Snapshot stale = snapshot.get(2);
+        assertNotSame(stale, snapshot.get(2));
+        assertEquals(2, topQueries.get());
+    }
+
+    @Test
+    void testJsonCanBeReadRepeatedly() throws IOException {
+        PopularFilmsSnapshot.Snapshot first = snapshot.get(2);
+        byte[] json = first.getJson().getInputStream().readAllBytes();
+        assertEquals(json.length, first.getJson().contentLength());
+        assertEquals(List.of(2L, 1L), ids(first));
+        assertEquals(List.of(2L, 1L), ids(first));
+    }
+
+    private List<Long> ids(PopularFilmsSnapshot.Snapshot snapshot) throws IOException {
+        List<Long> ids = new ArrayList<>();
+        for (JsonNode film : objectMapper.readTree(snapshot.getJson().getInputStream())) {
+            ids.add(film.get("id").asLong());
+        }
+        return ids;
+    }
+}
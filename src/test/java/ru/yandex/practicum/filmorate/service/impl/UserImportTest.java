@@ -0,0 +1,75 @@
+package ru.yandex.practicum.filmorate.service.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.ImportResult;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class UserImportTest {
+    private InMemoryUserStorage userStorage;
+    private UserServiceImpl userService;
+
+    @BeforeEach
+    void setUp() {
+        userStorage = new InMemoryUserStorage();
+        userStorage.create(user("taken@a.ru", "taken"));
+        userService = new UserServiceImpl(userStorage, Optional.empty());
+    }
+
+    @Test
+    void testCreateAll() {
+        List<ImportResult> results = userService.createAll(List.of(
+                user("new@a.ru", "new"),
+                user("taken@a.ru", "other"),
+                user("second@a.ru", "new"),
+                user("bad", "bad"),
+                user("last@a.ru", "last")));
+
+        assertEquals(5, results.size());
+        assertNotNull(results.get(0).getId());
+        assertEquals("'email' is already taken!", results.get(1).getError());
+        assertEquals("'login' is already taken!", results.get(2).getError());
+        assertEquals("'email' must contain '@'!", results.get(3).getError());
+        assertNull(results.get(4).getError());
+        assertEquals(3, userStorage.getAll().size());
+        assertEquals("last", userStorage.getUser(results.get(4).getId()).getName());
+    }
+
+    @Test
+    void testCreateAllReportsDuplicateKeys() {
+        InMemoryUserStorage racingStorage = new InMemoryUserStorage() {
+            @Override
+            public Set<String> getExistingLogins(Collection<String> logins) {
+                return Set.of();
+            }
+        };
+        racingStorage.create(user("taken@a.ru", "taken"));
+        UserServiceImpl racingService = new UserServiceImpl(racingStorage, Optional.empty());
+
+        List<ImportResult> results = racingService.createAll(List.of(
+                user("new@a.ru", "taken"),
+                user("other@a.ru", "other")));
+
+        assertEquals("'login' is already taken!", results.get(0).getError());
+        assertNull(results.get(0).getId());
+        assertNotNull(results.get(1).getId());
+        assertEquals(2, racingStorage.getAll().size());
+    }
+
+    private User user(String email, String login) {
+        return User.builder()
+                .email(email)
+                .login(login)
+                .build();
+    }
+}
@@ -0,0 +1,126 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.storage.film.CachingFilmStorage;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+
+public class CachingFilmStorageTest {
+    private final AtomicInteger versionQueries = new AtomicInteger();
+    private InMemoryFilmStorage filmStorage;
+    private CachingFilmStorage cachingStorage;
+
+    @BeforeEach
+    void setUp() {
+        filmStorage = new InMemoryFilmStorage() {
+            @Override
+            public Long getVersion(long filmId) {
+                versionQueries.incrementAndGet();
+                return super.getVersion(filmId);
+            }
+
+            @Override
+            public Map<Long, Long> getVersions(List<Long> filmIds) {
+                versionQueries.incrementAndGet();
+                return super.getVersions(filmIds);
+            }
+        };
+        for (int i = 0; i < 3; i++) {
+            filmStorage.create(Film.builder().name("film" + i).duration(1).build());
+        }
+        cachingStorage = new CachingFilmStorage(filmStorage, 2);
+    }
+
+    @Test
+    void testReadThrough() {
+        Film film = cachingStorage.getFilm(1);
+        assertEquals(film, cachingStorage.getFilm(1));
+        assertEquals(1, cachingStorage.getHits());
+        assertEquals(1, cachingStorage.getMisses());
+        assertNull(cachingStorage.getFilm(42));
+        assertEquals(2, cachingStorage.getMisses());
+    }
+
+    @Test
+    void testReturnsCopies() {
+        filmStorage.update(Film.builder()
+                .id(1)
+                .name("film0")
+                .duration(1)
+                .genres(new LinkedHashSet<>(List.of(Genre.builder().id(1).name("comedy").build())))
+                .mpa(Mpa.builder().id(1).name("G").build())
+                .build());
+        Film film = cachingStorage.getFilm(1);
+        film.setName("changed");
+        film.getGenres().clear();
+        film.setMpa(Mpa.builder().id(4).name("R").build());
+        cachingStorage.getFilms(List.of(1L)).get(0).getGenres().add(Genre.builder().id(2).build());
+
+        Film cached = cachingStorage.getFilm(1);
+        assertNotSame(cached, cachingStorage.getFilm(1));
+        assertEquals("film0", cached.getName());
+        assertEquals(Set.of(Genre.builder().id(1).name("comedy").build()), cached.getGenres());
+        assertEquals("G", cached.getMpa().getName());
+        assertEquals(1, cachingStorage.getMisses());
+    }
+
+    @Test
+    void testVersionsAreCached() {
+        assertEquals(0L, cachingStorage.getVersion(1));
+        assertEquals(0L, cachingStorage.getVersion(1));
+        assertEquals(Map.of(1L, 0L, 2L, 0L), cachingStorage.getVersions(List.of(1L, 2L)));
+        assertEquals(Map.of(2L, 0L), cachingStorage.getVersions(List.of(2L)));
+        assertEquals(2, versionQueries.get());
+
+        cachingStorage.update(cachingStorage.getFilm(1));
+        assertEquals(1L, cachingStorage.getVersion(1));
+        assertEquals(3, versionQueries.get());
+    }
+
+    @Test
+    void testLruEviction() {
+        cachingStorage.getFilm(1);
+        cachingStorage.getFilm(2);
+        cachingStorage.getFilm(1);
+        cachingStorage.getFilm(3);
+        assertEquals(1, cachingStorage.getEvictions());
+        assertEquals(2, cachingStorage.getSize());
+        cachingStorage.getFilm(1);
+        assertEquals(2, cachingStorage.getHits());
+        cachingStorage.getFilm(2);
+        assertEquals(4, cachingStorage.getMisses());
+    }
+
+    @Test
+    void testUpdateInvalidates() {
+        cachingStorage.getFilm(1);
+        cachingStorage.update(Film.builder().id(1).name("changed").duration(1).build());
+        assertEquals(0, cachingStorage.getSize());
+        assertEquals("changed", cachingStorage.getFilm(1).getName());
+        assertEquals(2, cachingStorage.getMisses());
+    }
+
+    @Test
+    void testBatchRead() {
+        cachingStorage.getFilm(2);
+        List<Film> films = cachingStorage.getFilms(List.of(3L, 2L, 42L));
+        assertEquals(2, films.size());
+        assertEquals(3, films.get(0).getId());
+        assertEquals(2, films.get(1).getId());
+        assertEquals(1, cachingStorage.getHits());
+        assertEquals(3, cachingStorage.getMisses());
+    }
+}
@@ -0,0 +1,71 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.storage.film.FilmDbStorage;
+import ru.yandex.practicum.filmorate.storage.film.ReferenceDataRegistry;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static ru.yandex.practicum.filmorate.storage.StorageUtils.BATCH_SIZE;
+
+public class FilmDbStorageTest {
+    private EmbeddedDatabase database;
+    private FilmDbStorage filmStorage;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .generateUniqueName(true)
+                .setType(EmbeddedDatabaseType.H2)
+                .addScript("schema.sql")
+                .addScript("data.sql")
+                .build();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(database);
+        ReferenceDataRegistry referenceData = new ReferenceDataRegistry(jdbcTemplate);
+        referenceData.refresh();
+        filmStorage = new FilmDbStorage(jdbcTemplate, referenceData);
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void testGetFilmsSplitsLargeIdLists() {
+        List<Long> created = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            created.add(filmStorage.create(Film.builder()
+                    .name("film" + i)
+                    .releaseDate(LocalDate.of(2000, 1, 1))
+                    .duration(1)
+                    .mpa(Mpa.builder().id(1).build())
+                    .build()).getId());
+        }
+        List<Long> filmIds = new ArrayList<>();
+        filmIds.add(created.get(2));
+        for (long id = 1000; id < 1000 + 2 * BATCH_SIZE; id++) {
+            filmIds.add(id);
+        }
+        filmIds.add(created.get(0));
+        filmIds.add(created.get(1));
+
+        List<Long> found = filmStorage.getFilms(filmIds)
+                .stream()
+                .map(Film::getId)
+                .collect(Collectors.toList());
+        assertEquals(List.of(created.get(2), created.get(0), created.get(1)), found);
+    }
+}
@@ -0,0 +1,152 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static ru.yandex.practicum.filmorate.model.Friendship.APPROVED;
+import static ru.yandex.practicum.filmorate.model.Friendship.UNAPPROVED;
+
+public class InMemoryStorageTest {
+    private static final int THREADS = 8;
+    private static final int PER_THREAD = 1000;
+
+    @Test
+    void testIdsAreNotReusedAfterDelete() {
+        InMemoryFilmStorage filmStorage = new InMemoryFilmStorage();
+        Film first = filmStorage.create(film());
+        filmStorage.create(film());
+        filmStorage.delete(first);
+        assertEquals(3, filmStorage.create(film()).getId());
+        assertNull(filmStorage.update(Film.builder().id(first.getId()).name("deleted").duration(1).build()));
+    }
+
+    @Test
+    void testConcurrentCreatesAndLikes() throws Exception {
+        InMemoryFilmStorage filmStorage = new InMemoryFilmStorage();
+        Film film = filmStorage.create(film());
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<List<Long>>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                long userOffset = (long) t * PER_THREAD;
+                futures.add(executor.submit(() -> {
+                    List<Long> ids = new ArrayList<>();
+                    for (int i = 0; i < PER_THREAD; i++) {
+                        ids.add(filmStorage.create(film()).getId());
+                        filmStorage.addLike(film.getId(), userOffset + i);
+                    }
+                    return ids;
+                }));
+            }
+            Set<Long> ids = new HashSet<>();
+            for (Future<List<Long>> future : futures) {
+                ids.addAll(future.get());
+            }
+            assertEquals(THREADS * PER_THREAD, ids.size());
+            assertEquals(THREADS * PER_THREAD + 1, filmStorage.getAll().size());
+            assertEquals(THREADS * PER_THREAD, filmStorage.getLikes().get(film.getId()).size());
+            assertEquals(film.getId(), filmStorage.getTopFilms(1).get(0).getId());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testLikeIndex() {
+        InMemoryFilmStorage filmStorage = new InMemoryFilmStorage();
+        Film first = filmStorage.create(film());
+        Film second = filmStorage.create(film());
+        filmStorage.addLike(first.getId(), 7);
+        filmStorage.addLike(second.getId(), 7);
+        filmStorage.addLike(second.getId(), 8);
+        assertEquals(2, filmStorage.getLikeCount(second.getId()));
+        assertArrayEquals(new long[]{first.getId(), second.getId()}, filmStorage.getLikedFilmIds(7));
+        assertEquals(second.getId(), filmStorage.getTopFilms(1).get(0).getId());
+
+        filmStorage.deleteLike(first.getId(), 7);
+        filmStorage.delete(second);
+        assertArrayEquals(new long[0], filmStorage.getLikedFilmIds(7));
+        assertArrayEquals(new long[0], filmStorage.getLikedFilmIds(8));
+        assertEquals(0, filmStorage.getLikeCount(second.getId()));
+    }
+
+    @Test
+    void testFriendshipStatus() {
+        InMemoryUserStorage userStorage = new InMemoryUserStorage();
+        for (int i = 0; i < 3; i++) {
+            userStorage.create(User.builder().email("user" + i + "@a.ru").login("user" + i).build());
+        }
+        long friendsVersion = userStorage.getFriendsVersion(1);
+        userStorage.addFriend(1, 2);
+        assertEquals(friendsVersion + 1, userStorage.getFriendsVersion(1));
+        userStorage.update(userStorage.getUser(2));
+        assertEquals(friendsVersion + 2, userStorage.getFriendsVersion(1));
+        assertEquals(UNAPPROVED, userStorage.getFriendshipStatus(1, 2));
+        assertArrayEquals(new long[0], userStorage.getFriendIds(2));
+
+        userStorage.addFriend(2, 1);
+        assertEquals(APPROVED, userStorage.getFriendshipStatus(1, 2));
+        assertEquals(APPROVED, userStorage.getFriendshipStatus(2, 1));
+
+        userStorage.deleteFriend(2, 1);
+        assertEquals(UNAPPROVED, userStorage.getFriendshipStatus(1, 2));
+        assertNull(userStorage.getFriendshipStatus(2, 1));
+        long unfollowedVersion = userStorage.getFriendsVersion(2);
+        userStorage.update(userStorage.getUser(1));
+        assertEquals(unfollowedVersion, userStorage.getFriendsVersion(2));
+
+        userStorage.addFriend(3, 1);
+        userStorage.delete(userStorage.getUser(1));
+        assertArrayEquals(new long[0], userStorage.getFriendIds(3));
+        assertArrayEquals(new long[0], userStorage.getFriendIds(1));
+    }
+
+    @Test
+    void testUniqueEmailsAndLogins() {
+        InMemoryUserStorage userStorage = new InMemoryUserStorage();
+        User first = userStorage.create(User.builder().email("first@a.ru").login("first").build());
+        User second = userStorage.create(User.builder().email("second@a.ru").login("second").build());
+
+        assertThrows(DuplicateKeyException.class,
+                () -> userStorage.create(User.builder().email("first@a.ru").login("third").build()));
+        assertThrows(DuplicateKeyException.class,
+                () -> userStorage.create(User.builder().email("third@a.ru").login("first").build()));
+        assertThrows(DuplicateKeyException.class,
+                () -> userStorage.update(User.builder().id(second.getId()).email("first@a.ru").login("second").build()));
+        assertThrows(DuplicateKeyException.class,
+                () -> userStorage.update(User.builder().id(second.getId()).email("second@a.ru").login("first").build()));
+        assertThrows(DuplicateKeyException.class, () -> userStorage.createAll(List.of(
+                User.builder().email("third@a.ru").login("third").build(),
+                User.builder().email("third@a.ru").login("fourth").build())));
+        assertEquals(2, userStorage.getAll().size());
+        assertEquals(Set.of("first@a.ru", "second@a.ru"),
+                userStorage.getExistingEmails(List.of("first@a.ru", "second@a.ru", "third@a.ru")));
+        assertEquals(Set.of("first", "second"), userStorage.getExistingLogins(List.of("first", "second", "third")));
+
+        userStorage.update(User.builder().id(first.getId()).email("renamed@a.ru").login("first").build());
+        userStorage.delete(second);
+        userStorage.create(User.builder().email("first@a.ru").login("second").build());
+        assertEquals(Set.of("first@a.ru", "renamed@a.ru"),
+                userStorage.getExistingEmails(List.of("first@a.ru", "renamed@a.ru", "second@a.ru")));
+    }
+
+    private Film film() {
+        return Film.builder().name("film").duration(1).build();
+    }
+}
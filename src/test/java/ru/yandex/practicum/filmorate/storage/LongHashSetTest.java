@@ -0,0 +1,48 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LongHashSetTest {
+    @Test
+    void testAddRemoveContains() {
+        LongHashSet set = new LongHashSet();
+        assertTrue(set.add(0));
+        assertTrue(set.add(42));
+        assertFalse(set.add(42));
+        assertTrue(set.contains(0));
+        assertArrayEquals(new long[]{0, 42}, set.toSortedArray());
+        assertTrue(set.remove(0));
+        assertFalse(set.remove(0));
+        assertFalse(set.contains(7));
+        assertEquals(1, set.size());
+    }
+
+    @Test
+    void testMatchesHashSet() {
+        Random random = new Random(42);
+        LongHashSet set = new LongHashSet();
+        Set<Long> expected = new HashSet<>();
+        for (int i = 0; i < 100000; i++) {
+            long value = random.nextInt(5000);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(value), set.remove(value));
+            } else {
+                assertEquals(expected.add(value), set.add(value));
+            }
+            assertEquals(expected.size(), set.size());
+        }
+        for (long value = 0; value < 5000; value++) {
+            assertEquals(expected.contains(value), set.contains(value));
+        }
+        assertArrayEquals(expected.stream().mapToLong(Long::longValue).sorted().toArray(), set.toSortedArray());
+    }
+}
@@ -0,0 +1,264 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Like;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.film.FilmDbStorage;
+import ru.yandex.practicum.filmorate.storage.film.ReferenceDataRegistry;
+import ru.yandex.practicum.filmorate.storage.user.UserDbStorage;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class QueryPlanTest {
+    private static final Set<String> FULL_READS = Set.of(
+            "referenceData.refresh",
+            "film.getAll",
+            "film.streamAll",
+            "film.getLikes",
+            "user.getAll",
+            "user.streamAll",
+            "user.forEachFriendship"
+    );
+
+    private final Map<String, Set<String>> queries = new LinkedHashMap<>();
+    private EmbeddedDatabase database;
+    private String step;
+    private FilmDbStorage filmStorage;
+    private UserDbStorage userStorage;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .generateUniqueName(true)
+                .setType(EmbeddedDatabaseType.H2)
+                .addScript("schema.sql")
+                .addScript("data.sql")
+                .build();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(recording(database));
+        ReferenceDataRegistry referenceData = new ReferenceDataRegistry(jdbcTemplate);
+        step("referenceData.refresh", referenceData::refresh);
+        filmStorage = new FilmDbStorage(jdbcTemplate, referenceData);
+        userStorage = new UserDbStorage(jdbcTemplate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void testStorageQueriesUseIndexes() throws SQLException {
+        runFilmQueries();
+        runUserQueries();
+
+        List<String> failures = new ArrayList<>();
+        for (Map.Entry<String, Set<String>> entry : queries.entrySet()) {
+            for (String sql : entry.getValue()) {
+                String plan = explain(sql);
+                if (plan != null && plan.contains(".tableScan") && !FULL_READS.contains(entry.getKey())) {
+                    failures.add(entry.getKey() + ": " + plan);
+                }
+            }
+        }
+        assertFalse(queries.isEmpty());
+        assertTrue(failures.isEmpty(), "Queries falling back to a table scan:\n" + String.join("\n", failures));
+    }
+
+    private void runFilmQueries() {
+        User user = userStorage.create(user("film@a.ru", "film"));
+        Film film = step("film.create", () -> filmStorage.create(film("created")));
+        long filmId = film.getId();
+        step("film.createAll", () -> filmStorage.createAll(List.of(film("imported"), film("imported"))));
+        step("film.getAll", filmStorage::getAll);
+        step("film.getPage", () -> filmStorage.getPage(0, 10));
+        step("film.streamAll", () -> filmStorage.streamAll(streamed -> {
+        }));
+        step("film.getFilm", () -> filmStorage.getFilm(filmId));
+        step("film.getFilms", () -> filmStorage.getFilms(List.of(filmId, filmId + 1)));
+        step("film.exists", () -> filmStorage.exists(filmId));
+        step("film.getVersion", () -> filmStorage.getVersion(filmId));
+        step("film.getVersions", () -> filmStorage.getVersions(List.of(filmId, filmId + 1)));
+        step("film.update", () -> {
+            Film changed = film("updated");
+            changed.setId(filmId);
+            return filmStorage.update(changed);
+        });
+        step("film.update", () -> {
+            Film changed = film("regenred");
+            changed.setId(filmId);
+            changed.setGenres(new LinkedHashSet<>(List.of(Genre.builder().id(3).build())));
+            return filmStorage.update(changed);
+        });
+        step("film.addLike", () -> filmStorage.addLike(filmId, user.getId()));
+        step("film.getLikes", filmStorage::getLikes);
+        step("film.getLikesCount", () -> filmStorage.getLikesCount(filmId));
+        Like like = Like.builder().filmId(filmId).userId(user.getId()).build();
+        step("film.deleteLikes", () -> filmStorage.deleteLikes(List.of(like)));
+        step("film.addLikes", () -> filmStorage.addLikes(List.of(like)));
+        step("film.getTopFilms", () -> filmStorage.getTopFilms(10));
+        step("film.getTopFilmIds", () -> filmStorage.getTopFilmIds(10));
+        step("film.deleteLike", () -> filmStorage.deleteLike(filmId, user.getId()));
+        step("film.delete", () -> filmStorage.delete(film));
+    }
+
+    private void runUserQueries() {
+        User user = step("user.create", () -> userStorage.create(user("user@a.ru", "user")));
+        User friend = step("user.create", () -> userStorage.create(user("friend@a.ru", "friend")));
+        long userId = user.getId();
+        step("user.createAll", () -> userStorage.createAll(List.of(user("bulk1@a.ru", "bulk1"),
+                user("bulk2@a.ru", "bulk2"))));
+        step("user.getExistingEmails", () -> userStorage.getExistingEmails(List.of("user@a.ru", "none@a.ru")));
+        step("user.getExistingLogins", () -> userStorage.getExistingLogins(List.of("user", "none")));
+        step("user.getAll", userStorage::getAll);
+        step("user.getPage", () -> userStorage.getPage(0, 10));
+        step("user.streamAll", () -> userStorage.streamAll(streamed -> {
+        }));
+        step("user.getUser", () -> userStorage.getUser(userId));
+        step("user.exists", () -> userStorage.exists(userId));
+        step("user.update", () -> userStorage.update(user));
+        step("user.addFriend", () -> userStorage.addFriend(userId, friend.getId()));
+        step("user.addFriend", () -> userStorage.addFriend(friend.getId(), userId));
+        step("user.getUserFriends", () -> userStorage.getUserFriends(userId));
+        step("user.getFriendIds", () -> userStorage.getFriendIds(userId));
+        step("user.isFriend", () -> userStorage.isFriend(userId, friend.getId()));
+        step("user.getFriendsVersion", () -> userStorage.getFriendsVersion(userId));
+        step("user.update", () -> userStorage.update(friend));
+        step("user.getUsers", () -> userStorage.getUsers(new long[]{userId, friend.getId()}));
+        step("user.forEachFriendship", () -> userStorage.forEachFriendship((id, friendId) -> {
+        }));
+        step("user.deleteFriend", () -> userStorage.deleteFriend(userId, friend.getId()));
+        step("user.delete", () -> userStorage.delete(friend));
+    }
+
+    private String explain(String sql) throws SQLException {
+        String statement = sql.trim().toUpperCase();
+        if (statement.startsWith("/*")) {
+            statement = statement.substring(statement.indexOf("*/") + 2).trim();
+        }
+        if (statement.startsWith("INSERT") && statement.contains("VALUES")) {
+            return null;
+        }
+        try (Connection connection = database.getConnection();
+             PreparedStatement ps = connection.prepareStatement("EXPLAIN " + sql)) {
+            int parameters = ps.getParameterMetaData().getParameterCount();
+            for (int i = 1; i <= parameters; i++) {
+                ps.setLong(i, 1);
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                return rs.getString(1);
+            }
+        }
+    }
+
+    private Film film(String description) {
+        return Film.builder()
+                .name("test")
+                .description(description)
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(1)
+                .mpa(Mpa.builder().id(1).build())
+                .genres(new LinkedHashSet<>(List.of(Genre.builder().id(1).build(), Genre.builder().id(2).build())))
+                .build();
+    }
+
+    private User user(String email, String login) {
+        return User.builder()
+                .email(email)
+                .login(login)
+                .name(login)
+                .birthday(LocalDate.of(2000, 1, 1))
+                .build();
+    }
+
+    private void step(String name, Runnable action) {
+        step(name, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    private <T> T step(String name, Step<T> action) {
+        step = name;
+        try {
+            return action.run();
+        } finally {
+            step = null;
+        }
+    }
+
+    private void record(String sql) {
+        if (step != null) {
+            queries.computeIfAbsent(step, key -> new LinkedHashSet<>()).add(sql);
+        }
+    }
+
+    private DelegatingDataSource recording(EmbeddedDatabase target) {
+        return new DelegatingDataSource(target) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                Connection connection = super.getConnection();
+                return (Connection) Proxy.newProxyInstance(QueryPlanTest.class.getClassLoader(),
+                        new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                            if (method.getName().startsWith("prepare") && args != null && args[0] instanceof String) {
+                                record((String) args[0]);
+                            }
+                            Object result = invoke(method, connection, args);
+                            if (method.getName().equals("createStatement")) {
+                                return recording((Statement) result);
+                            }
+                            return result;
+                        });
+            }
+        };
+    }
+
+    private Statement recording(Statement statement) {
+        return (Statement) Proxy.newProxyInstance(QueryPlanTest.class.getClassLoader(),
+                new Class<?>[]{Statement.class}, (proxy, method, args) -> {
+                    if (method.getName().startsWith("execute") && args != null && args[0] instanceof String) {
+                        record((String) args[0]);
+                    }
+                    return invoke(method, statement, args);
+                });
+    }
+
+    private static Object invoke(Method method, Object target, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private interface Step<T> {
+        T run();
+    }
+}
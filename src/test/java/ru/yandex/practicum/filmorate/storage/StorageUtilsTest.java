@@ -0,0 +1,28 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static ru.yandex.practicum.filmorate.storage.StorageUtils.intersectSorted;
+
+public class StorageUtilsTest {
+    @Test
+    void testIntersectSorted() {
+        assertArrayEquals(new long[]{2, 5}, intersectSorted(new long[]{1, 2, 5, 7}, new long[]{2, 3, 5, 8}));
+    }
+
+    @Test
+    void testIntersectEmpty() {
+        assertArrayEquals(new long[0], intersectSorted(new long[0], new long[]{1, 2}));
+        assertArrayEquals(new long[0], intersectSorted(new long[]{1, 3}, new long[]{2, 4}));
+    }
+
+    @Test
+    void testIntersectSkewedSizes() {
+        long[] large = LongStream.rangeClosed(1, 10_000).map(i -> i * 2).toArray();
+        assertArrayEquals(new long[]{4, 20_000}, intersectSorted(new long[]{3, 4, 20_000, 20_001}, large));
+        assertArrayEquals(new long[]{4, 20_000}, intersectSorted(large, new long[]{3, 4, 20_000, 20_001}));
+    }
+}
@@ -0,0 +1,85 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.user.UserDbStorage;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class UserDbStorageTest {
+    private static final int THREADS = 8;
+    private static final int USERS = 20;
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+    private UserDbStorage userStorage;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .generateUniqueName(true)
+                .setType(EmbeddedDatabaseType.H2)
+                .addScript("schema.sql")
+                .addScript("data.sql")
+                .build();
+        jdbcTemplate = new JdbcTemplate(database);
+        userStorage = new UserDbStorage(jdbcTemplate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void testConcurrentAddFriendIsIdempotent() throws Exception {
+        List<Long> userIds = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            userIds.add(userStorage.create(User.builder()
+                    .email("user" + i + "@a.ru")
+                    .login("user" + i)
+                    .birthday(LocalDate.of(2000, 1, 1))
+                    .build()).getId());
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (int i = 1; i < USERS; i++) {
+                long userId = userIds.get(0);
+                long friendId = userIds.get(i);
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<?>> futures = new ArrayList<>();
+                for (int t = 0; t < THREADS; t++) {
+                    futures.add(executor.submit(() -> {
+                        start.await();
+                        userStorage.addFriend(userId, friendId);
+                        return null;
+                    }));
+                }
+                start.countDown();
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+                assertTrue(userStorage.isFriend(userId, friendId));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(USERS - 1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM FRIENDSHIPS", Integer.class));
+        assertEquals(USERS - 1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM USER_FRIENDS", Integer.class));
+    }
+}
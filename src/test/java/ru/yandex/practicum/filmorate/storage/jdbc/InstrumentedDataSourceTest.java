@@ -0,0 +1,95 @@
+package ru.yandex.practicum.filmorate.storage.jdbc;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class InstrumentedDataSourceTest {
+    private EmbeddedDatabase database;
+    private SimpleMeterRegistry registry;
+    private QueryMetrics queryMetrics;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .generateUniqueName(true)
+                .setType(EmbeddedDatabaseType.H2)
+                .build();
+        registry = new SimpleMeterRegistry();
+        queryMetrics = new QueryMetrics(0);
+        jdbcTemplate = new JdbcTemplate(new InstrumentedDataSource(database, () -> queryMetrics));
+        jdbcTemplate.execute("/* items.create */ CREATE TABLE ITEMS (ID INT PRIMARY KEY)");
+        queryMetrics.bindTo(registry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void testRecordsNamedQueries() {
+        jdbcTemplate.batchUpdate("/* items.insert */ INSERT INTO ITEMS (ID) VALUES (?)",
+                List.of(new Object[]{1}, new Object[]{2}, new Object[]{3}));
+        jdbcTemplate.queryForList("/* items.find */ SELECT ID FROM ITEMS WHERE ID > ?", Integer.class, 1);
+        jdbcTemplate.queryForList("/* items.find */ SELECT ID FROM ITEMS WHERE ID > ?", Integer.class, 2);
+
+        assertEquals(2, registry.get("filmorate.jdbc.query").tag("query", "items.find").timer().count());
+        assertEquals(3, registry.get("filmorate.jdbc.query.rows").tag("query", "items.find").summary().totalAmount());
+        assertEquals(3, registry.get("filmorate.jdbc.query.rows").tag("query", "items.insert").summary().totalAmount());
+
+        QueryStatistics find = queryMetrics.getStatistics()
+                .stream()
+                .filter(statistics -> statistics.getQuery().equals("items.find"))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(2, find.getCalls());
+        assertEquals(2, find.getSlowCalls());
+    }
+
+    @Test
+    void testSlowQueryLogOmitsParameterValues() {
+        Logger logger = (Logger) LoggerFactory.getLogger(QueryMetrics.class);
+        ListAppender<ILoggingEvent> events = new ListAppender<>();
+        events.start();
+        logger.addAppender(events);
+        try {
+            jdbcTemplate.queryForList("/* items.find */ SELECT ID FROM ITEMS WHERE ID > ?", Integer.class, 424242);
+        } finally {
+            logger.detachAppender(events);
+        }
+
+        assertEquals(1, events.list.size());
+        String message = events.list.get(0).getFormattedMessage();
+        assertTrue(message.contains("with 1 parameters [Integer]"));
+        assertFalse(message.contains("424242"));
+    }
+
+    @Test
+    void testSkipsQueriesBeforeBinding() {
+        assertTrue(registry.find("filmorate.jdbc.query").tag("query", "items.create").timers().isEmpty());
+        assertTrue(queryMetrics.getStatistics().isEmpty());
+    }
+
+    @Test
+    void testQueryName() {
+        assertEquals("film.getAll", QueryMetrics.queryName(" /* film.getAll */ SELECT * FROM FILMS"));
+        assertEquals(QueryMetrics.UNNAMED, QueryMetrics.queryName("SELECT * FROM FILMS"));
+    }
+}